@@ -0,0 +1,81 @@
+/*
+ * xml-objects - A simple and lightweight XML-to-object mapping library
+ * https://github.com/xmlobjects
+ *
+ * Copyright 2019-2020 Claus Nagel <claus.nagel@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.xmlobjects;
+
+import org.xmlobjects.builder.ObjectBuildException;
+import org.xmlobjects.builder.ObjectBuilder;
+import org.xmlobjects.builder.UncheckedObjectBuildException;
+import org.xmlobjects.stream.EventType;
+import org.xmlobjects.stream.UncheckedXMLReadException;
+import org.xmlobjects.stream.XMLReadException;
+import org.xmlobjects.stream.XMLReader;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+class ObjectIterator<T> implements Iterator<T> {
+    private final XMLObjects xmlObjects;
+    private final XMLReader reader;
+    private final Class<T> objectType;
+    private T next;
+
+    ObjectIterator(XMLObjects xmlObjects, XMLReader reader, Class<T> objectType) {
+        this.xmlObjects = xmlObjects;
+        this.reader = reader;
+        this.objectType = objectType;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null) {
+            try {
+                next = advance();
+            } catch (ObjectBuildException e) {
+                throw new UncheckedObjectBuildException(e.getMessage(), e);
+            } catch (XMLReadException e) {
+                throw new UncheckedXMLReadException(e.getMessage(), e);
+            }
+        }
+
+        return next != null;
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext())
+            throw new NoSuchElementException();
+
+        T object = next;
+        next = null;
+        return object;
+    }
+
+    private T advance() throws ObjectBuildException, XMLReadException {
+        while (reader.hasNext()) {
+            if (reader.nextTag() == EventType.START_ELEMENT) {
+                ObjectBuilder<T> builder = xmlObjects.findBuilder(reader.getSymbol(), objectType);
+                if (builder != null)
+                    return reader.getObjectUsingBuilder(builder);
+            }
+        }
+
+        return null;
+    }
+}
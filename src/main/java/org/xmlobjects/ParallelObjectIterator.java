@@ -0,0 +1,187 @@
+/*
+ * xml-objects - A simple and lightweight XML-to-object mapping library
+ * https://github.com/xmlobjects
+ *
+ * Copyright 2019-2020 Claus Nagel <claus.nagel@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.xmlobjects;
+
+import org.xmlobjects.builder.ObjectBuildException;
+import org.xmlobjects.builder.ObjectBuilder;
+import org.xmlobjects.builder.UncheckedObjectBuildException;
+import org.xmlobjects.stream.EventType;
+import org.xmlobjects.stream.UncheckedXMLReadException;
+import org.xmlobjects.stream.XMLReadException;
+import org.xmlobjects.stream.XMLReader;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadPoolExecutor;
+
+class ParallelObjectIterator<T> implements Iterator<T> {
+    private final XMLObjects xmlObjects;
+    private final XMLReader reader;
+    private final Class<T> objectType;
+    private final Executor executor;
+    private final CompletionService<T> completionService;
+    private final Deque<Future<T>> pending = new ArrayDeque<>();
+    private final int capacity;
+    private boolean exhausted;
+    private T next;
+
+    ParallelObjectIterator(XMLObjects xmlObjects, XMLReader reader, Class<T> objectType, Executor executor, boolean ordered, int capacity) {
+        if (capacity <= 0)
+            throw new IllegalArgumentException("The number of pending objects must be positive.");
+
+        this.xmlObjects = xmlObjects;
+        this.reader = reader;
+        this.objectType = objectType;
+        this.executor = Objects.requireNonNull(executor, "The executor must not be null.");
+        this.capacity = capacity;
+        completionService = !ordered ? new ExecutorCompletionService<>(executor) : null;
+    }
+
+    static int getDefaultCapacity(Executor executor) {
+        int parallelism = Runtime.getRuntime().availableProcessors();
+        if (executor instanceof ForkJoinPool)
+            parallelism = ((ForkJoinPool) executor).getParallelism();
+        else if (executor instanceof ThreadPoolExecutor) {
+            int poolSize = ((ThreadPoolExecutor) executor).getMaximumPoolSize();
+            if (poolSize != Integer.MAX_VALUE)
+                parallelism = poolSize;
+        }
+
+        return parallelism * 2;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null) {
+            try {
+                next = advance();
+            } catch (ObjectBuildException e) {
+                cancel();
+                throw new UncheckedObjectBuildException(e.getMessage(), e);
+            } catch (XMLReadException e) {
+                cancel();
+                throw new UncheckedXMLReadException(e.getMessage(), e);
+            }
+        }
+
+        return next != null;
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext())
+            throw new NoSuchElementException();
+
+        T object = next;
+        next = null;
+        return object;
+    }
+
+    void cancel() {
+        exhausted = true;
+        pending.forEach(future -> future.cancel(true));
+        pending.clear();
+    }
+
+    private T advance() throws ObjectBuildException, XMLReadException {
+        while (true) {
+            while (!exhausted && pending.size() < capacity)
+                exhausted = !submitNext();
+
+            if (pending.isEmpty())
+                return null;
+
+            T object = getResult(take());
+            if (object != null)
+                return object;
+        }
+    }
+
+    private boolean submitNext() throws ObjectBuildException, XMLReadException {
+        while (reader.hasNext()) {
+            if (reader.nextTag() == EventType.START_ELEMENT) {
+                ObjectBuilder<T> builder = xmlObjects.findBuilder(reader.getSymbol(), objectType);
+                if (builder != null) {
+                    XMLReader child = reader.createReader(reader.getSAXBuffer());
+                    Callable<T> task = () -> {
+                        try (XMLReader subtree = child) {
+                            subtree.nextTag();
+                            return subtree.getObjectUsingBuilder(builder);
+                        }
+                    };
+
+                    if (completionService != null)
+                        pending.add(completionService.submit(task));
+                    else {
+                        FutureTask<T> future = new FutureTask<>(task);
+                        executor.execute(future);
+                        pending.add(future);
+                    }
+
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    private Future<T> take() throws XMLReadException {
+        if (completionService == null)
+            return pending.poll();
+
+        try {
+            Future<T> future = completionService.take();
+            pending.remove(future);
+            return future;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new XMLReadException("Interrupted while waiting for objects to be built.", e);
+        }
+    }
+
+    private T getResult(Future<T> future) throws ObjectBuildException, XMLReadException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new XMLReadException("Interrupted while waiting for objects to be built.", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof ObjectBuildException)
+                throw (ObjectBuildException) cause;
+            else if (cause instanceof XMLReadException)
+                throw (XMLReadException) cause;
+            else
+                throw new ObjectBuildException("Failed to build object.", cause);
+        }
+    }
+}
@@ -0,0 +1,364 @@
+/*
+ * xml-objects - A simple and lightweight XML-to-object mapping library
+ * https://github.com/xmlobjects
+ *
+ * Copyright 2019-2020 Claus Nagel <claus.nagel@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.xmlobjects;
+
+import org.xmlobjects.builder.ObjectBuilder;
+import org.xmlobjects.serializer.ObjectSerializer;
+import org.xmlobjects.xml.Namespaces;
+
+import javax.xml.namespace.QName;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+final class Registry {
+    private static final BuilderInfo[] NO_BUILDERS = new BuilderInfo[0];
+    static final Registry EMPTY = new Registry(0, null, Collections.emptyMap(), Collections.emptyMap(), Collections.emptyMap());
+
+    private final long version;
+    private final Registry parent;
+    private final Map<QName, BuilderInfo> builders;
+    private final Map<Class<?>, BuilderInfo[]> buildersByType;
+    private final Map<String, Map<String, LazyInstance<ObjectSerializer<?>>>> serializers;
+    private final Set<String> serializableNamespaces;
+    private final Map<String, String> internalPrefixes;
+    private final ClassValue<SerializerLookup> serializerLookups = new ClassValue<SerializerLookup>() {
+        @Override
+        protected SerializerLookup computeValue(Class<?> type) {
+            return createSerializerLookup(type);
+        }
+    };
+
+    private Registry(long version, Registry parent, Map<QName, BuilderInfo> builders, Map<Class<?>, BuilderInfo[]> buildersByType, Map<String, Map<String, LazyInstance<ObjectSerializer<?>>>> serializers) {
+        this.version = version;
+        this.parent = parent;
+        this.builders = builders;
+        this.buildersByType = buildersByType;
+        this.serializers = serializers;
+
+        Set<String> namespaces = new HashSet<>();
+        for (Map<String, LazyInstance<ObjectSerializer<?>>> map : serializers.values())
+            namespaces.addAll(map.keySet());
+
+        Map<String, String> prefixes = new HashMap<>(namespaces.size());
+        namespaces.stream().sorted().forEach(n -> prefixes.put(n, "ns" + (prefixes.size() + 1)));
+
+        serializableNamespaces = Collections.unmodifiableSet(namespaces);
+        internalPrefixes = Collections.unmodifiableMap(prefixes);
+    }
+
+    long getVersion() {
+        return version;
+    }
+
+    Registry getParent() {
+        return parent;
+    }
+
+    BuilderInfo getBuilderInfo(QName name) {
+        return builders.get(name);
+    }
+
+    BuilderInfo getBuilderInfo(ObjectBuilder<?> builder) {
+        BuilderInfo[] infos = buildersByType.get(builder.getClass());
+        if (infos != null) {
+            for (BuilderInfo info : infos) {
+                if (info.builder.peek() == builder)
+                    return info;
+            }
+        }
+
+        return null;
+    }
+
+    BuilderInfo[] getBuilderInfos(Class<?> type) {
+        return buildersByType.getOrDefault(type, NO_BUILDERS);
+    }
+
+    Map<String, LazyInstance<ObjectSerializer<?>>> getSerializers(String typeName) {
+        return serializers.getOrDefault(typeName, Collections.emptyMap());
+    }
+
+    SerializerLookup getSerializerLookup(Class<?> type) {
+        return serializerLookups.get(type);
+    }
+
+    Set<String> getSerializableNamespaces() {
+        return serializableNamespaces;
+    }
+
+    Map<String, String> getInternalPrefixes() {
+        return internalPrefixes;
+    }
+
+    Editor edit() {
+        return new Editor(this);
+    }
+
+    Registry merge(Registry parent, Set<String> unloadedBuilders, Set<String> unloadedSerializers) {
+        Editor editor = parent.edit();
+        unloadedBuilders.forEach(editor::removeBuilders);
+        unloadedSerializers.forEach(editor::removeSerializers);
+        builders.forEach((name, info) -> editor.putBuilder(info.builder, info.objectType, name));
+        serializers.forEach((typeName, map) -> map.forEach((namespaceURI, serializer) ->
+                editor.putSerializer(serializer, typeName, namespaceURI)));
+
+        return editor.build(parent);
+    }
+
+    private SerializerLookup createSerializerLookup(Class<?> type) {
+        List<String> namespaces = new ArrayList<>();
+        List<LazyInstance<ObjectSerializer<?>>> serializers = new ArrayList<>();
+        Set<Class<?>> interfaces = new LinkedHashSet<>();
+
+        Class<?> clazz = type;
+        do {
+            addSerializers(clazz, namespaces, serializers);
+            interfaces.addAll(Arrays.asList(clazz.getInterfaces()));
+        } while ((clazz = clazz.getSuperclass()) != null && clazz != Object.class);
+
+        Deque<Class<?>> queue = new ArrayDeque<>(interfaces);
+        while (!queue.isEmpty()) {
+            Class<?> candidate = queue.poll();
+            addSerializers(candidate, namespaces, serializers);
+            for (Class<?> parent : candidate.getInterfaces()) {
+                if (interfaces.add(parent))
+                    queue.add(parent);
+            }
+        }
+
+        return new SerializerLookup(namespaces, serializers);
+    }
+
+    private void addSerializers(Class<?> type, List<String> namespaces, List<LazyInstance<ObjectSerializer<?>>> serializers) {
+        for (Map.Entry<String, LazyInstance<ObjectSerializer<?>>> entry : getSerializers(type.getName()).entrySet()) {
+            namespaces.add(entry.getKey());
+            serializers.add(entry.getValue());
+        }
+    }
+
+    static final class BuilderInfo {
+        final LazyInstance<ObjectBuilder<?>> builder;
+        final Class<?> objectType;
+        final Set<QName> names;
+        final Set<String> namespaces;
+
+        private BuilderInfo(LazyInstance<ObjectBuilder<?>> builder, Class<?> objectType, Set<QName> names) {
+            this.builder = builder;
+            this.objectType = objectType;
+            this.names = Collections.unmodifiableSet(names);
+
+            Set<String> namespaces = new HashSet<>();
+            for (QName name : names)
+                namespaces.add(name.getNamespaceURI());
+
+            this.namespaces = Collections.unmodifiableSet(namespaces);
+        }
+
+        private BuilderInfo(LazyInstance<ObjectBuilder<?>> builder, Class<?> objectType) {
+            this.builder = builder;
+            this.objectType = objectType;
+            names = Collections.emptySet();
+            namespaces = Collections.emptySet();
+        }
+    }
+
+    static final class LazyInstance<T> {
+        private final Class<?> type;
+        private final Factory<? extends T> factory;
+        private volatile T instance;
+        private Exception failure;
+
+        private LazyInstance(Class<?> type, Factory<? extends T> factory, T instance) {
+            this.type = type;
+            this.factory = factory;
+            this.instance = instance;
+        }
+
+        static <T> LazyInstance<T> of(T instance) {
+            return new LazyInstance<>(instance.getClass(), null, instance);
+        }
+
+        static <T> LazyInstance<T> of(Class<?> type, Factory<? extends T> factory) {
+            return new LazyInstance<>(type, factory, null);
+        }
+
+        Class<?> getType() {
+            return type;
+        }
+
+        T peek() {
+            return instance;
+        }
+
+        T get() {
+            T result = instance;
+            if (result == null) {
+                synchronized (this) {
+                    result = instance;
+                    if (result == null) {
+                        // remember failures so that the factory is not retried on every lookup
+                        if (failure == null) {
+                            try {
+                                instance = result = factory.create();
+                            } catch (Exception e) {
+                                failure = e;
+                            }
+                        }
+
+                        if (failure != null)
+                            throw new IllegalStateException("Failed to create an instance of " + type.getName() + ".", failure);
+                    }
+                }
+            }
+
+            return result;
+        }
+    }
+
+    static final class SerializerLookup {
+        private final String[] namespaces;
+        private final LazyInstance<ObjectSerializer<?>>[] serializers;
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        private SerializerLookup(List<String> namespaces, List<LazyInstance<ObjectSerializer<?>>> serializers) {
+            this.namespaces = namespaces.toArray(new String[0]);
+            this.serializers = serializers.toArray(new LazyInstance[0]);
+        }
+
+        LazyInstance<ObjectSerializer<?>> find(String namespaceURI) {
+            for (int i = 0; i < namespaces.length; i++) {
+                if (namespaces[i].equals(namespaceURI))
+                    return serializers[i];
+            }
+
+            return null;
+        }
+
+        LazyInstance<ObjectSerializer<?>> find(Namespaces namespaces) {
+            for (int i = 0; i < this.namespaces.length; i++) {
+                if (namespaces.contains(this.namespaces[i]))
+                    return serializers[i];
+            }
+
+            return null;
+        }
+    }
+
+    @FunctionalInterface
+    interface Factory<T> {
+        T create() throws Exception;
+    }
+
+    static final class Editor {
+        private final Registry registry;
+        private final Map<QName, BuilderInfo> builders;
+        private final Map<String, Map<String, LazyInstance<ObjectSerializer<?>>>> serializers;
+        private final Set<String> copiedTypes = new HashSet<>();
+
+        private Editor(Registry registry) {
+            this.registry = registry;
+            builders = new HashMap<>(registry.builders);
+            serializers = new HashMap<>(registry.serializers);
+        }
+
+        LazyInstance<ObjectBuilder<?>> putBuilder(LazyInstance<ObjectBuilder<?>> builder, Class<?> objectType, QName name) {
+            BuilderInfo current = builders.put(name, new BuilderInfo(builder, objectType));
+            return current != null ? current.builder : null;
+        }
+
+        void removeBuilders(String namespaceURI) {
+            builders.keySet().removeIf(name -> name.getNamespaceURI().equals(namespaceURI));
+        }
+
+        LazyInstance<ObjectSerializer<?>> putSerializer(LazyInstance<ObjectSerializer<?>> serializer, String typeName, String namespaceURI) {
+            return getOrCopy(typeName).put(namespaceURI, serializer);
+        }
+
+        void removeSerializers(String namespaceURI) {
+            for (String typeName : new HashSet<>(serializers.keySet())) {
+                if (serializers.get(typeName).containsKey(namespaceURI)) {
+                    Map<String, LazyInstance<ObjectSerializer<?>>> map = getOrCopy(typeName);
+                    map.remove(namespaceURI);
+                    if (map.isEmpty())
+                        serializers.remove(typeName);
+                }
+            }
+        }
+
+        Registry build() {
+            return build(null);
+        }
+
+        private Registry build(Registry parent) {
+            Map<String, Map<String, LazyInstance<ObjectSerializer<?>>>> serializers = new HashMap<>(this.serializers.size());
+            for (Map.Entry<String, Map<String, LazyInstance<ObjectSerializer<?>>>> entry : this.serializers.entrySet()) {
+                serializers.put(entry.getKey(), copiedTypes.contains(entry.getKey()) ?
+                        Collections.unmodifiableMap(entry.getValue()) :
+                        entry.getValue());
+            }
+
+            Map<LazyInstance<ObjectBuilder<?>>, Set<QName>> names = new IdentityHashMap<>();
+            Map<LazyInstance<ObjectBuilder<?>>, Class<?>> objectTypes = new IdentityHashMap<>();
+            for (Map.Entry<QName, BuilderInfo> entry : this.builders.entrySet()) {
+                names.computeIfAbsent(entry.getValue().builder, v -> new HashSet<>()).add(entry.getKey());
+                objectTypes.put(entry.getValue().builder, entry.getValue().objectType);
+            }
+
+            Map<QName, BuilderInfo> builders = new HashMap<>(this.builders.size());
+            Map<Class<?>, BuilderInfo[]> buildersByType = new HashMap<>(names.size());
+            for (Map.Entry<LazyInstance<ObjectBuilder<?>>, Set<QName>> entry : names.entrySet()) {
+                BuilderInfo info = new BuilderInfo(entry.getKey(), objectTypes.get(entry.getKey()), entry.getValue());
+                for (QName name : entry.getValue())
+                    builders.put(name, info);
+
+                buildersByType.merge(entry.getKey().getType(), new BuilderInfo[]{info}, (a, b) -> {
+                    BuilderInfo[] infos = Arrays.copyOf(a, a.length + 1);
+                    infos[a.length] = b[0];
+                    return infos;
+                });
+            }
+
+            return new Registry(registry.version + 1,
+                    parent,
+                    Collections.unmodifiableMap(builders),
+                    Collections.unmodifiableMap(buildersByType),
+                    Collections.unmodifiableMap(serializers));
+        }
+
+        private Map<String, LazyInstance<ObjectSerializer<?>>> getOrCopy(String typeName) {
+            if (copiedTypes.add(typeName)) {
+                Map<String, LazyInstance<ObjectSerializer<?>>> map = serializers.get(typeName);
+                serializers.put(typeName, map != null ? new HashMap<>(map) : new HashMap<>());
+            }
+
+            return serializers.get(typeName);
+        }
+    }
+}
@@ -21,10 +21,14 @@ package org.xmlobjects;
 
 import org.atteo.classindex.ClassFilter;
 import org.atteo.classindex.ClassIndex;
+import org.xmlobjects.Registry.BuilderInfo;
+import org.xmlobjects.Registry.LazyInstance;
+import org.xmlobjects.annotation.Stateful;
 import org.xmlobjects.annotation.XMLElement;
 import org.xmlobjects.annotation.XMLElements;
 import org.xmlobjects.builder.ObjectBuildException;
 import org.xmlobjects.builder.ObjectBuilder;
+import org.xmlobjects.index.XMLObjectsIndex;
 import org.xmlobjects.serializer.ObjectSerializeException;
 import org.xmlobjects.serializer.ObjectSerializer;
 import org.xmlobjects.stream.EventType;
@@ -32,25 +36,52 @@ import org.xmlobjects.stream.XMLReadException;
 import org.xmlobjects.stream.XMLReader;
 import org.xmlobjects.stream.XMLWriteException;
 import org.xmlobjects.stream.XMLWriter;
+import org.xmlobjects.util.xml.SymbolTable.Symbol;
 import org.xmlobjects.xml.Namespaces;
 
 import javax.xml.XMLConstants;
 import javax.xml.namespace.QName;
+import java.lang.reflect.Constructor;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.lang.reflect.Type;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
 import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.Executor;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public class XMLObjects {
-    private final Map<String, Map<String, BuilderInfo>> builders = new ConcurrentHashMap<>();
-    private final Map<String, Map<String, ObjectSerializer<?>>> serializers = new ConcurrentHashMap<>();
+    private final Object lock = new Object();
+    private final Set<String> unloadedBuilders = new HashSet<>();
+    private final Set<String> unloadedSerializers = new HashSet<>();
+
+    private final ClassValue<LazyInstance<?>> sharedInstances = new ClassValue<LazyInstance<?>>() {
+        @Override
+        protected LazyInstance<?> computeValue(Class<?> type) {
+            return !type.isAnnotationPresent(Stateful.class) ?
+                    LazyInstance.of(type, () -> type.getDeclaredConstructor().newInstance()) :
+                    null;
+        }
+    };
+
+    private volatile Registry registry = Registry.EMPTY;
+    private volatile XMLObjects parent;
+    private Registry local = Registry.EMPTY;
 
     private XMLObjects() {
         // just to thwart instantiation
@@ -62,27 +93,55 @@ public class XMLObjects {
 
     public static XMLObjects newInstance(ClassLoader classLoader) throws XMLObjectsException {
         XMLObjects context = new XMLObjects();
-        context.loadBuilders(classLoader, true);
-        context.loadSerializers(classLoader, true);
+        context.update(editor -> {
+            context.loadBuilders(editor, classLoader, true);
+            context.loadSerializers(editor, classLoader, true);
+        });
 
         return context;
     }
 
+    public XMLObjects newChild() {
+        XMLObjects child = new XMLObjects();
+        child.parent = this;
+        child.merge();
+        return child;
+    }
+
+    public XMLObjects getParent() {
+        return parent;
+    }
+
+    public XMLObjects withParent(XMLObjects parent) {
+        for (XMLObjects ancestor = parent; ancestor != null; ancestor = ancestor.parent) {
+            if (ancestor == this)
+                throw new IllegalArgumentException("The parent must not be this context or one of its descendants.");
+        }
+
+        synchronized (lock) {
+            this.parent = parent;
+            merge();
+        }
+
+        return this;
+    }
+
     public XMLObjects registerBuilder(ObjectBuilder<?> builder, String namespaceURI, String localName) throws XMLObjectsException {
-        registerBuilder(builder, namespaceURI, localName, false);
+        update(editor -> {
+            BuilderInfo info = getRegistry().getBuilderInfo(builder);
+            registerBuilder(editor, info != null ? info.builder : LazyInstance.of(builder),
+                    findBuilderObjectType(builder.getClass()), namespaceURI, localName, false);
+        });
+
         return this;
     }
 
     public ObjectBuilder<?> getBuilder(String namespaceURI, String localName) {
-        BuilderInfo info = builders.getOrDefault(namespaceURI, Collections.emptyMap()).get(localName);
-        return info != null ? info.builder : null;
+        return getBuilder(new QName(namespaceURI, localName));
     }
 
-    @SuppressWarnings("unchecked")
     public <T> ObjectBuilder<T> getBuilder(String namespaceURI, String localName, Class<T> objectType) {
-        Objects.requireNonNull(objectType, "Object type must not be null.");
-        BuilderInfo info = builders.getOrDefault(namespaceURI, Collections.emptyMap()).get(localName);
-        return info != null && objectType.isAssignableFrom(info.objectType) ? (ObjectBuilder<T>) info.builder : null;
+        return getBuilder(new QName(namespaceURI, localName), objectType);
     }
 
     public ObjectBuilder<?> getBuilder(String localName) {
@@ -94,40 +153,97 @@ public class XMLObjects {
     }
 
     public ObjectBuilder<?> getBuilder(QName name) {
-        return getBuilder(name.getNamespaceURI(), name.getLocalPart());
+        BuilderInfo info = getRegistry().getBuilderInfo(name);
+        return info != null ? info.builder.get() : null;
     }
 
+    @SuppressWarnings("unchecked")
     public <T> ObjectBuilder<T> getBuilder(QName name, Class<T> objectType) {
-        return getBuilder(name.getNamespaceURI(), name.getLocalPart(), objectType);
+        Objects.requireNonNull(objectType, "Object type must not be null.");
+        BuilderInfo info = getRegistry().getBuilderInfo(name);
+        return info != null && objectType.isAssignableFrom(info.objectType) ? (ObjectBuilder<T>) info.builder.get() : null;
     }
 
-    public Class<?> getObjectType(ObjectBuilder<?> builder) {
-        for (Map<String, BuilderInfo> infos : builders.values()) {
-            for (BuilderInfo info : infos.values()) {
-                if (info.builder == builder)
-                    return info.objectType;
-            }
+    @SuppressWarnings("unchecked")
+    public <T> ObjectBuilder<T> getBuilder(Symbol symbol, Class<T> objectType) {
+        Objects.requireNonNull(objectType, "Object type must not be null.");
+        Registry registry = getRegistry();
+        BuilderInfo info;
+        if (symbol.hasValue(registry))
+            info = (BuilderInfo) symbol.getValue(registry);
+        else {
+            info = registry.getBuilderInfo(symbol.getName());
+            symbol.setValue(registry, info);
         }
 
-        return Object.class;
+        return info != null && objectType.isAssignableFrom(info.objectType) ? (ObjectBuilder<T>) info.builder.get() : null;
     }
 
-    public Class<?> getObjectType(String namespaceURI, ObjectBuilder<?> builder) {
-        for (BuilderInfo info : builders.getOrDefault(namespaceURI, Collections.emptyMap()).values()) {
-            if (info.builder == builder)
-                return info.objectType;
+    public <T> ObjectBuilder<T> getSharedBuilder(Class<? extends ObjectBuilder<T>> type) throws ObjectBuildException {
+        try {
+            LazyInstance<?> instance = sharedInstances.get(type);
+            return instance != null ? type.cast(instance.get()) : null;
+        } catch (IllegalStateException e) {
+            throw e.getCause() instanceof NoSuchMethodException ?
+                    new ObjectBuildException("The builder " + type.getName() + " lacks a default constructor.", e.getCause()) :
+                    new ObjectBuildException("Failed to create an instance of the builder " + type.getName() + ".", e.getCause());
         }
+    }
+
+    <T> ObjectBuilder<T> findBuilder(Symbol symbol, Class<T> objectType) throws ObjectBuildException {
+        try {
+            return getBuilder(symbol, objectType);
+        } catch (IllegalStateException e) {
+            throw new ObjectBuildException("Failed to create the builder for the XML element " + symbol.getName() + ".", e);
+        }
+    }
+
+    public Class<?> getObjectType(ObjectBuilder<?> builder) {
+        BuilderInfo info = getRegistry().getBuilderInfo(builder);
+        return info != null ? info.objectType : Object.class;
+    }
+
+    public Class<?> getObjectType(String namespaceURI, ObjectBuilder<?> builder) {
+        BuilderInfo info = getRegistry().getBuilderInfo(builder);
+        return info != null && info.namespaces.contains(namespaceURI) ? info.objectType : Object.class;
+    }
+
+    public Set<QName> getElementNames(ObjectBuilder<?> builder) {
+        BuilderInfo info = getRegistry().getBuilderInfo(builder);
+        return info != null ? info.names : Collections.emptySet();
+    }
+
+    public Set<QName> getElementNames(Class<? extends ObjectBuilder<?>> type) {
+        BuilderInfo[] infos = getRegistry().getBuilderInfos(type);
+        if (infos.length == 1)
+            return infos[0].names;
+
+        Set<QName> names = new HashSet<>();
+        for (BuilderInfo info : infos)
+            names.addAll(info.names);
 
-        return Object.class;
+        return names;
     }
 
     public XMLObjects registerSerializer(ObjectSerializer<?> serializer, Class<?> objectType, String namespaceURI) throws XMLObjectsException {
-        registerSerializer(serializer, objectType, namespaceURI, false);
+        update(editor -> registerSerializer(editor, LazyInstance.of(serializer), objectType, namespaceURI, false));
         return this;
     }
 
+    public <T> ObjectSerializer<T> getSharedSerializer(Class<? extends ObjectSerializer<T>> type) throws ObjectSerializeException {
+        try {
+            LazyInstance<?> instance = sharedInstances.get(type);
+            return instance != null ? type.cast(instance.get()) : null;
+        } catch (IllegalStateException e) {
+            throw e.getCause() instanceof NoSuchMethodException ?
+                    new ObjectSerializeException("The serializer " + type.getName() + " lacks a default constructor.", e.getCause()) :
+                    new ObjectSerializeException("Failed to create an instance of the serializer " + type.getName() + ".", e.getCause());
+        }
+    }
+
     public ObjectSerializer<?> getSerializer(Class<?> objectType, String namespaceURI) {
-        return serializers.getOrDefault(objectType.getName(), Collections.emptyMap()).get(namespaceURI);
+        LazyInstance<ObjectSerializer<?>> serializer = getRegistry().getSerializerLookup(objectType).find(namespaceURI);
+        return serializer != null ? serializer.get() : null;
     }
 
     public ObjectSerializer<?> getSerializer(Class<?> objectType) {
@@ -135,17 +251,16 @@ public class XMLObjects {
     }
 
     public ObjectSerializer<?> getSerializer(Class<?> objectType, Namespaces namespaces) {
-        Map<String, ObjectSerializer<?>> map = serializers.getOrDefault(objectType.getName(), Collections.emptyMap());
-        for (Map.Entry<String, ObjectSerializer<?>> entry : map.entrySet()) {
-            if (namespaces.contains(entry.getKey()))
-                return entry.getValue();
-        }
-
-        return null;
+        LazyInstance<ObjectSerializer<?>> serializer = getRegistry().getSerializerLookup(objectType).find(namespaces);
+        return serializer != null ? serializer.get() : null;
     }
 
     public Set<String> getSerializableNamespaces() {
-        return serializers.values().stream().flatMap(map -> map.keySet().stream()).collect(Collectors.toSet());
+        return getRegistry().getSerializableNamespaces();
+    }
+
+    public Map<String, String> getInternalPrefixes() {
+        return getRegistry().getInternalPrefixes();
     }
 
     public <T> T fromXML(XMLReader reader, Class<T> objectType) throws ObjectBuildException, XMLReadException {
@@ -156,7 +271,7 @@ public class XMLObjects {
             EventType event = reader.nextTag();
 
             if (event == EventType.START_ELEMENT) {
-                ObjectBuilder<T> builder = getBuilder(reader.getName(), objectType);
+                ObjectBuilder<T> builder = findBuilder(reader.getSymbol(), objectType);
                 if (builder != null) {
                     stopAt = reader.getDepth() - 2;
                     object = reader.getObjectUsingBuilder(builder);
@@ -176,6 +291,34 @@ public class XMLObjects {
         return object;
     }
 
+    public <T> Iterator<T> iterator(XMLReader reader, Class<T> objectType) {
+        return new ObjectIterator<>(this, reader, objectType);
+    }
+
+    public <T> Stream<T> stream(XMLReader reader, Class<T> objectType) {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator(reader, objectType),
+                Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    public <T> Iterator<T> iterator(XMLReader reader, Class<T> objectType, Executor executor, boolean ordered) {
+        return iterator(reader, objectType, executor, ordered, ParallelObjectIterator.getDefaultCapacity(executor));
+    }
+
+    public <T> Iterator<T> iterator(XMLReader reader, Class<T> objectType, Executor executor, boolean ordered, int maxPending) {
+        return new ParallelObjectIterator<>(this, reader, objectType, executor, ordered, maxPending);
+    }
+
+    public <T> Stream<T> stream(XMLReader reader, Class<T> objectType, Executor executor, boolean ordered) {
+        return stream(reader, objectType, executor, ordered, ParallelObjectIterator.getDefaultCapacity(executor));
+    }
+
+    public <T> Stream<T> stream(XMLReader reader, Class<T> objectType, Executor executor, boolean ordered, int maxPending) {
+        ParallelObjectIterator<T> iterator = new ParallelObjectIterator<>(this, reader, objectType, executor, ordered, maxPending);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator,
+                ordered ? Spliterator.ORDERED | Spliterator.NONNULL : Spliterator.NONNULL), false)
+                .onClose(iterator::cancel);
+    }
+
     public void toXML(XMLWriter writer, Object object, Namespaces namespaces) throws ObjectSerializeException, XMLWriteException {
         writer.writeStartDocument();
         writer.writeObject(object, namespaces);
@@ -194,12 +337,61 @@ public class XMLObjects {
         toXML(writer, object, Namespaces.of(getSerializableNamespaces()));
     }
 
-    @SuppressWarnings("rawtypes")
     public void loadBuilders(ClassLoader classLoader, boolean failOnDuplicates) throws XMLObjectsException {
+        update(editor -> loadBuilders(editor, classLoader, failOnDuplicates));
+    }
+
+    public void loadSerializers(ClassLoader classLoader, boolean failOnDuplicates) throws XMLObjectsException {
+        update(editor -> loadSerializers(editor, classLoader, failOnDuplicates));
+    }
+
+    public void unloadBuilders(String namespaceURI) {
+        if (namespaceURI != null) {
+            synchronized (lock) {
+                Registry.Editor editor = local.edit();
+                editor.removeBuilders(namespaceURI);
+                local = editor.build();
+                unloadedBuilders.add(namespaceURI);
+                merge();
+            }
+        }
+    }
+
+    public void unloadSerializers(String namespaceURI) {
+        if (namespaceURI != null) {
+            synchronized (lock) {
+                Registry.Editor editor = local.edit();
+                editor.removeSerializers(namespaceURI);
+                local = editor.build();
+                unloadedSerializers.add(namespaceURI);
+                merge();
+            }
+        }
+    }
+
+    @SuppressWarnings("rawtypes")
+    private void loadBuilders(Registry.Editor editor, ClassLoader classLoader, boolean failOnDuplicates) throws XMLObjectsException {
+        Map<Class<?>, LazyInstance<ObjectBuilder<?>>> indexedBuilders = new HashMap<>();
+        for (XMLObjectsIndex index : getIndexes(classLoader)) {
+            index.loadBuilders((type, factory, objectType, namespaceURI, localName) -> {
+                LazyInstance<ObjectBuilder<?>> builder = indexedBuilders.get(type);
+                if (builder == null) {
+                    builder = factory != null ?
+                            LazyInstance.of(type, factory::get) :
+                            LazyInstance.of(type, getFactory(type, "builder"));
+                    indexedBuilders.put(type, builder);
+                }
+
+                loadBuilder(editor, builder, objectType != null ? objectType : findBuilderObjectType(type),
+                        namespaceURI, localName, failOnDuplicates);
+            });
+        }
+
+        Set<String> indexed = indexedBuilders.keySet().stream().map(Class::getName).collect(Collectors.toSet());
         for (Class<? extends ObjectBuilder> type : ClassFilter.only()
                 .withoutModifiers(Modifier.ABSTRACT)
                 .satisfying(c -> c.isAnnotationPresent(XMLElement.class) || c.isAnnotationPresent(XMLElements.class))
-                .from(ClassIndex.getSubclasses(ObjectBuilder.class, classLoader))) {
+                .from(getSubclasses(ObjectBuilder.class, indexed, classLoader))) {
 
             boolean isSetElement = type.isAnnotationPresent(XMLElement.class);
             boolean isSetElements = type.isAnnotationPresent(XMLElements.class);
@@ -207,30 +399,42 @@ public class XMLObjects {
             if (isSetElement && isSetElements)
                 throw new XMLObjectsException("The builder " + type.getName() + " uses both @XMLElement and @XMLElements.");
 
-            ObjectBuilder<?> builder;
-            try {
-                builder = type.getDeclaredConstructor().newInstance();
-            } catch (Exception e) {
-                throw new XMLObjectsException("The builder " + type.getName() + " lacks a default constructor.", e);
-            }
-
+            LazyInstance<ObjectBuilder<?>> builder = LazyInstance.of(type, getFactory(type, "builder"));
+            Class<?> objectType = findBuilderObjectType(type);
             if (isSetElement) {
                 XMLElement element = type.getAnnotation(XMLElement.class);
-                registerBuilder(builder, element.namespaceURI(), element.name(), failOnDuplicates);
+                loadBuilder(editor, builder, objectType, element.namespaceURI(), element.name(), failOnDuplicates);
             } else if (isSetElements) {
                 XMLElements elements = type.getAnnotation(XMLElements.class);
                 for (XMLElement element : elements.value())
-                    registerBuilder(builder, element.namespaceURI(), element.name(), failOnDuplicates);
+                    loadBuilder(editor, builder, objectType, element.namespaceURI(), element.name(), failOnDuplicates);
             }
         }
     }
 
     @SuppressWarnings("rawtypes")
-    public void loadSerializers(ClassLoader classLoader, boolean failOnDuplicates) throws XMLObjectsException {
+    private void loadSerializers(Registry.Editor editor, ClassLoader classLoader, boolean failOnDuplicates) throws XMLObjectsException {
+        Map<Class<?>, LazyInstance<ObjectSerializer<?>>> indexedSerializers = new HashMap<>();
+        for (XMLObjectsIndex index : getIndexes(classLoader)) {
+            index.loadSerializers((type, factory, objectType, namespaceURI) -> {
+                LazyInstance<ObjectSerializer<?>> serializer = indexedSerializers.get(type);
+                if (serializer == null) {
+                    serializer = factory != null ?
+                            LazyInstance.of(type, factory::get) :
+                            LazyInstance.of(type, getFactory(type, "serializer"));
+                    indexedSerializers.put(type, serializer);
+                }
+
+                loadSerializer(editor, serializer, objectType != null ? objectType : findSerializerObjectType(type),
+                        namespaceURI, failOnDuplicates);
+            });
+        }
+
+        Set<String> indexed = indexedSerializers.keySet().stream().map(Class::getName).collect(Collectors.toSet());
         for (Class<? extends ObjectSerializer> type : ClassFilter.only()
                 .withoutModifiers(Modifier.ABSTRACT)
                 .satisfying(c -> c.isAnnotationPresent(XMLElement.class) || c.isAnnotationPresent(XMLElements.class))
-                .from(ClassIndex.getSubclasses(ObjectSerializer.class, classLoader))) {
+                .from(getSubclasses(ObjectSerializer.class, indexed, classLoader))) {
 
             boolean isSetElement = type.isAnnotationPresent(XMLElement.class);
             boolean isSetElements = type.isAnnotationPresent(XMLElements.class);
@@ -238,62 +442,131 @@ public class XMLObjects {
             if (isSetElement && isSetElements)
                 throw new XMLObjectsException("The serializer " + type.getName() + " uses both @XMLElement and @XMLElements.");
 
-            ObjectSerializer<?> serializer;
-            try {
-                serializer = type.getDeclaredConstructor().newInstance();
-            } catch (Exception e) {
-                throw new XMLObjectsException("The serializer " + type.getName() + " lacks a default constructor.", e);
-            }
-
-            Class<?> objectType = findObjectType(serializer);
+            LazyInstance<ObjectSerializer<?>> serializer = LazyInstance.of(type, getFactory(type, "serializer"));
+            Class<?> objectType = findSerializerObjectType(type);
             if (isSetElement) {
                 XMLElement element = type.getAnnotation(XMLElement.class);
-                registerSerializer(serializer, objectType, element.namespaceURI(), failOnDuplicates);
+                loadSerializer(editor, serializer, objectType, element.namespaceURI(), failOnDuplicates);
             } else if (isSetElements) {
                 XMLElements elements = type.getAnnotation(XMLElements.class);
                 for (XMLElement element : elements.value())
-                    registerSerializer(serializer, objectType, element.namespaceURI(), failOnDuplicates);
+                    loadSerializer(editor, serializer, objectType, element.namespaceURI(), failOnDuplicates);
             }
         }
     }
 
-    public void unloadBuilders(String namespaceURI) {
-        if (namespaceURI != null)
-            builders.remove(namespaceURI);
+    private Registry getRegistry() {
+        Registry registry = this.registry;
+        XMLObjects parent = this.parent;
+        return parent == null || registry.getParent() == parent.getRegistry() ? registry : merge();
     }
 
-    public void unloadSerializers(String namespaceURI) {
-        if (namespaceURI != null)
-            serializers.values().forEach(v -> v.remove(namespaceURI));
+    private Registry merge() {
+        synchronized (lock) {
+            XMLObjects parent = this.parent;
+            registry = parent != null ?
+                    local.merge(parent.getRegistry(), unloadedBuilders, unloadedSerializers) :
+                    local;
+
+            return registry;
+        }
     }
 
-    private void registerBuilder(ObjectBuilder<?> builder, String namespaceURI, String localName, boolean failOnDuplicates) throws XMLObjectsException {
-        BuilderInfo info = new BuilderInfo(builder, findObjectType(builder));
-        BuilderInfo current = builders.computeIfAbsent(namespaceURI, v -> new HashMap<>()).put(localName, info);
-        if (current != null && current.builder != builder && failOnDuplicates)
-            throw new XMLObjectsException("Two builders are registered for the XML element " +
-                    new QName(namespaceURI, localName) + ": " +
-                    builder.getClass().getName() + " and " + current.builder.getClass().getName() + ".");
+    private void update(RegistryUpdate update) throws XMLObjectsException {
+        synchronized (lock) {
+            Registry.Editor editor = local.edit();
+            update.apply(editor);
+            local = editor.build();
+            merge();
+        }
+    }
+
+    private void loadBuilder(Registry.Editor editor, LazyInstance<ObjectBuilder<?>> builder, Class<?> objectType, String namespaceURI, String localName, boolean failOnDuplicates) throws XMLObjectsException {
+        XMLObjects parent = this.parent;
+        if (parent != null && !unloadedBuilders.contains(namespaceURI)) {
+            BuilderInfo inherited = parent.getRegistry().getBuilderInfo(new QName(namespaceURI, localName));
+            if (inherited != null && inherited.builder.getType() == builder.getType())
+                return;
+        }
+
+        registerBuilder(editor, builder, objectType, namespaceURI, localName, failOnDuplicates);
+    }
+
+    private void loadSerializer(Registry.Editor editor, LazyInstance<ObjectSerializer<?>> serializer, Class<?> objectType, String namespaceURI, boolean failOnDuplicates) throws XMLObjectsException {
+        XMLObjects parent = this.parent;
+        if (parent != null && !unloadedSerializers.contains(namespaceURI)) {
+            LazyInstance<ObjectSerializer<?>> inherited = parent.getRegistry().getSerializers(objectType.getName()).get(namespaceURI);
+            if (inherited != null && inherited.getType() == serializer.getType())
+                return;
+        }
+
+        registerSerializer(editor, serializer, objectType, namespaceURI, failOnDuplicates);
+    }
+
+    private List<XMLObjectsIndex> getIndexes(ClassLoader classLoader) throws XMLObjectsException {
+        try {
+            List<XMLObjectsIndex> indexes = new ArrayList<>();
+            ServiceLoader.load(XMLObjectsIndex.class, classLoader).forEach(indexes::add);
+            return indexes;
+        } catch (ServiceConfigurationError e) {
+            throw new XMLObjectsException("Failed to load XML objects index.", e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> Iterable<Class<? extends T>> getSubclasses(Class<T> type, Set<String> excludes, ClassLoader classLoader) {
+        Set<Class<? extends T>> subclasses = new LinkedHashSet<>();
+        for (String className : ClassIndex.getSubclassesNames(type, classLoader)) {
+            if (!excludes.contains(className)) {
+                try {
+                    subclasses.add((Class<? extends T>) classLoader.loadClass(className));
+                } catch (ClassNotFoundException | NoClassDefFoundError e) {
+                    //
+                }
+            }
+        }
+
+        return subclasses;
     }
 
-    private void registerSerializer(ObjectSerializer<?> serializer, Class<?> objectType, String namespaceURI, boolean failOnDuplicates) throws XMLObjectsException {
-        ObjectSerializer<?> current = serializers.computeIfAbsent(objectType.getName(), v -> new HashMap<>()).put(namespaceURI, serializer);
+    @SuppressWarnings("unchecked")
+    private <T> Registry.Factory<T> getFactory(Class<?> type, String kind) throws XMLObjectsException {
+        try {
+            Constructor<?> constructor = type.getDeclaredConstructor();
+            return () -> (T) constructor.newInstance();
+        } catch (NoSuchMethodException e) {
+            throw new XMLObjectsException("The " + kind + " " + type.getName() + " lacks a default constructor.", e);
+        } catch (Exception e) {
+            throw new XMLObjectsException("Failed to access the default constructor of the " + kind + " " + type.getName() + ".", e);
+        }
+    }
+
+    private void registerBuilder(Registry.Editor editor, LazyInstance<ObjectBuilder<?>> builder, Class<?> objectType, String namespaceURI, String localName, boolean failOnDuplicates) throws XMLObjectsException {
+        QName name = new QName(namespaceURI, localName);
+        LazyInstance<ObjectBuilder<?>> current = editor.putBuilder(builder, objectType, name);
+        if (current != null && current != builder && failOnDuplicates)
+            throw new XMLObjectsException("Two builders are registered for the XML element " + name + ": " +
+                    builder.getType().getName() + " and " + current.getType().getName() + ".");
+    }
+
+    private void registerSerializer(Registry.Editor editor, LazyInstance<ObjectSerializer<?>> serializer, Class<?> objectType, String namespaceURI, boolean failOnDuplicates) throws XMLObjectsException {
+        LazyInstance<ObjectSerializer<?>> current = editor.putSerializer(serializer, objectType.getName(), namespaceURI);
         if (current != null && current != serializer && failOnDuplicates)
             throw new XMLObjectsException("Two serializers are registered for the object type " +
                     objectType.getName() + ": " +
-                    serializer.getClass().getName() + " and " + current.getClass().getName() + ".");
+                    serializer.getType().getName() + " and " + current.getType().getName() + ".");
     }
 
-    private Class<?> findObjectType(ObjectBuilder<?> builder) {
+    private Class<?> findBuilderObjectType(Class<?> type) {
         try {
-            return builder.getClass().getMethod("createObject", QName.class, Object.class).getReturnType();
+            return type.getMethod("createObject", QName.class, Object.class).getReturnType();
         } catch (NoSuchMethodException e) {
             return Object.class;
         }
     }
 
-    private Class<?> findObjectType(ObjectSerializer<?> serializer) throws XMLObjectsException {
-        Class<?> clazz = serializer.getClass();
+    private Class<?> findSerializerObjectType(Class<?> type) throws XMLObjectsException {
+        Class<?> clazz = type;
         Class<?> objectType = null;
 
         do {
@@ -324,7 +597,7 @@ public class XMLObjects {
 
                     if (candidateType != null) {
                         if (objectType != null && candidateType != objectType)
-                            throw new XMLObjectsException("The serializer " + serializer.getClass().getName() +
+                            throw new XMLObjectsException("The serializer " + type.getName() +
                                     " uses different object types: " +
                                     objectType.getName() + " and " + candidateType.getName() + ".");
 
@@ -337,13 +610,8 @@ public class XMLObjects {
         return objectType != null ? objectType : Object.class;
     }
 
-    private static class BuilderInfo {
-        final ObjectBuilder<?> builder;
-        final Class<?> objectType;
-
-        BuilderInfo(ObjectBuilder<?> builder, Class<?> objectType) {
-            this.builder = builder;
-            this.objectType = objectType;
-        }
+    @FunctionalInterface
+    private interface RegistryUpdate {
+        void apply(Registry.Editor editor) throws XMLObjectsException;
     }
 }
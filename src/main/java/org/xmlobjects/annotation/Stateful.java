@@ -0,0 +1,41 @@
+/*
+ * xml-objects - A simple and lightweight XML-to-object mapping library
+ * https://github.com/xmlobjects
+ *
+ * Copyright 2019-2020 Claus Nagel <claus.nagel@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.xmlobjects.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a builder or serializer that keeps state between calls. Such types are
+ * never shared between threads: readers and writers create one instance each and
+ * drop it when they are reused. Builders and serializers without this annotation
+ * are instantiated once per {@code XMLObjects} context and used concurrently, so
+ * they must be thread-safe. The annotation is inherited by subclasses.
+ */
+@Documented
+@Inherited
+@Target(value = ElementType.TYPE)
+@Retention(value = RetentionPolicy.RUNTIME)
+public @interface Stateful {
+}
@@ -0,0 +1,37 @@
+/*
+ * xml-objects - A simple and lightweight XML-to-object mapping library
+ * https://github.com/xmlobjects
+ *
+ * Copyright 2019-2020 Claus Nagel <claus.nagel@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.xmlobjects.builder;
+
+public class UncheckedObjectBuildException extends RuntimeException {
+    private static final long serialVersionUID = -4125372084653195733L;
+
+    public UncheckedObjectBuildException(String message, ObjectBuildException cause) {
+        super(message, cause);
+    }
+
+    public UncheckedObjectBuildException(ObjectBuildException cause) {
+        super(cause);
+    }
+
+    @Override
+    public synchronized ObjectBuildException getCause() {
+        return (ObjectBuildException) super.getCause();
+    }
+}
@@ -0,0 +1,41 @@
+/*
+ * xml-objects - A simple and lightweight XML-to-object mapping library
+ * https://github.com/xmlobjects
+ *
+ * Copyright 2019-2020 Claus Nagel <claus.nagel@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.xmlobjects.index;
+
+import org.xmlobjects.XMLObjectsException;
+import org.xmlobjects.builder.ObjectBuilder;
+import org.xmlobjects.serializer.ObjectSerializer;
+
+import java.util.function.Supplier;
+
+public interface XMLObjectsIndex {
+    void loadBuilders(BuilderConsumer consumer) throws XMLObjectsException;
+    void loadSerializers(SerializerConsumer consumer) throws XMLObjectsException;
+
+    @FunctionalInterface
+    interface BuilderConsumer {
+        void accept(Class<?> type, Supplier<? extends ObjectBuilder<?>> factory, Class<?> objectType, String namespaceURI, String localName) throws XMLObjectsException;
+    }
+
+    @FunctionalInterface
+    interface SerializerConsumer {
+        void accept(Class<?> type, Supplier<? extends ObjectSerializer<?>> factory, Class<?> objectType, String namespaceURI) throws XMLObjectsException;
+    }
+}
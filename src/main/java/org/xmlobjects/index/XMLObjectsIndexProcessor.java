@@ -0,0 +1,455 @@
+/*
+ * xml-objects - A simple and lightweight XML-to-object mapping library
+ * https://github.com/xmlobjects
+ *
+ * Copyright 2019-2020 Claus Nagel <claus.nagel@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.xmlobjects.index;
+
+import org.xmlobjects.annotation.XMLElement;
+import org.xmlobjects.annotation.XMLElements;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.annotation.processing.SupportedOptions;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.ExecutableType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+@SupportedAnnotationTypes({
+        "org.xmlobjects.annotation.XMLElement",
+        "org.xmlobjects.annotation.XMLElements"
+})
+@SupportedOptions(XMLObjectsIndexProcessor.INDEX_CLASS_OPTION)
+public class XMLObjectsIndexProcessor extends AbstractProcessor {
+    public static final String INDEX_CLASS_OPTION = "xmlobjects.index";
+    public static final String DEFAULT_INDEX_CLASS_NAME = "GeneratedXMLObjectsIndex";
+    public static final String SERVICE_FILE = "META-INF/services/" + XMLObjectsIndex.class.getName();
+
+    private static final String BUILDER_TYPE = "org.xmlobjects.builder.ObjectBuilder";
+    private static final String SERIALIZER_TYPE = "org.xmlobjects.serializer.ObjectSerializer";
+    private static final String QNAME_TYPE = "javax.xml.namespace.QName";
+    private static final String NAMESPACES_TYPE = "org.xmlobjects.xml.Namespaces";
+    private static final String WRITER_TYPE = "org.xmlobjects.stream.XMLWriter";
+
+    private final Set<TypeElement> types = new LinkedHashSet<>();
+    private boolean generated;
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        Set<TypeElement> candidates = new LinkedHashSet<>();
+        for (Element element : roundEnv.getElementsAnnotatedWith(XMLElement.class))
+            addCandidate(element, candidates);
+
+        for (Element element : roundEnv.getElementsAnnotatedWith(XMLElements.class))
+            addCandidate(element, candidates);
+
+        if (!candidates.isEmpty()) {
+            if (generated) {
+                for (TypeElement type : candidates) {
+                    processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE,
+                            "The type " + type.getQualifiedName() + " was generated after the XML objects index " +
+                                    "had been written and will be looked up at runtime instead.", type);
+                }
+            } else {
+                types.addAll(candidates);
+                generateIndex();
+                generated = true;
+            }
+        }
+
+        return false;
+    }
+
+    private void addCandidate(Element element, Set<TypeElement> candidates) {
+        if (element.getKind() != ElementKind.CLASS || element.getModifiers().contains(Modifier.ABSTRACT))
+            return;
+
+        TypeElement type = (TypeElement) element;
+        if (!isSubtype(type, BUILDER_TYPE) && !isSubtype(type, SERIALIZER_TYPE))
+            return;
+
+        if (type.getAnnotation(XMLElement.class) != null && type.getAnnotation(XMLElements.class) != null) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "The type " + type.getQualifiedName() + " uses both @XMLElement and @XMLElements.", type);
+            return;
+        }
+
+        candidates.add(type);
+    }
+
+    private void generateIndex() {
+        String className = processingEnv.getOptions().get(INDEX_CLASS_OPTION);
+        if (className == null || className.trim().isEmpty()) {
+            String packageName = getCommonPackage();
+            String simpleName = DEFAULT_INDEX_CLASS_NAME + "_" + getTypesHash();
+            className = packageName.isEmpty() ?
+                    simpleName :
+                    packageName + "." + simpleName;
+        }
+
+        int index = className.lastIndexOf('.');
+        String packageName = index != -1 ? className.substring(0, index) : "";
+        String simpleName = className.substring(index + 1);
+
+        try {
+            JavaFileObject source = processingEnv.getFiler().createSourceFile(className, types.toArray(new Element[0]));
+            try (PrintWriter writer = new PrintWriter(source.openWriter())) {
+                writeIndex(writer, packageName, simpleName);
+            }
+
+            FileObject service = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", SERVICE_FILE);
+            try (Writer writer = service.openWriter()) {
+                writer.write(className);
+                writer.write('\n');
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "Failed to write XML objects index " + className + ": " + e.getMessage());
+        }
+    }
+
+    private void writeIndex(PrintWriter writer, String packageName, String simpleName) {
+        Map<TypeElement, Integer> factories = new LinkedHashMap<>();
+        for (TypeElement type : types) {
+            if (isInstantiable(type))
+                factories.put(type, factories.size());
+        }
+
+        if (!packageName.isEmpty()) {
+            writer.println("package " + packageName + ";");
+            writer.println();
+        }
+
+        writer.println("public final class " + simpleName + " implements " + XMLObjectsIndex.class.getName() + " {");
+        writer.println();
+        writer.println("    @Override");
+        writer.println("    public void loadBuilders(BuilderConsumer consumer) throws org.xmlobjects.XMLObjectsException {");
+        for (TypeElement type : types) {
+            if (isSubtype(type, BUILDER_TYPE)) {
+                String factory = getFactory(type, factories);
+                String objectType = getClassLiteral(getBuilderObjectType(type));
+                for (XMLElement element : getElements(type)) {
+                    writer.println("        consumer.accept(" + getClassLiteral(type.asType()) + ", " + factory + ", " +
+                            objectType + ", " + toLiteral(element.namespaceURI()) + ", " + toLiteral(element.name()) + ");");
+                }
+            }
+        }
+
+        writer.println("    }");
+        writer.println();
+        writer.println("    @Override");
+        writer.println("    public void loadSerializers(SerializerConsumer consumer) throws org.xmlobjects.XMLObjectsException {");
+        for (TypeElement type : types) {
+            if (isSubtype(type, SERIALIZER_TYPE)) {
+                String factory = getFactory(type, factories);
+                TypeMirror objectType = getSerializerObjectType(type);
+                if (objectType == null)
+                    continue;
+
+                for (XMLElement element : getElements(type)) {
+                    writer.println("        consumer.accept(" + getClassLiteral(type.asType()) + ", " + factory + ", " +
+                            getClassLiteral(objectType) + ", " + toLiteral(element.namespaceURI()) + ");");
+                }
+            }
+        }
+
+        writer.println("    }");
+        writer.println();
+        writer.println("    private static final class Factory<T> implements java.util.function.Supplier<T> {");
+        writer.println("        private final int id;");
+        writer.println();
+        writer.println("        Factory(int id) {");
+        writer.println("            this.id = id;");
+        writer.println("        }");
+        writer.println();
+        writer.println("        @Override");
+        writer.println("        @SuppressWarnings(\"unchecked\")");
+        writer.println("        public T get() {");
+        writer.println("            switch (id) {");
+        for (Map.Entry<TypeElement, Integer> entry : factories.entrySet())
+            writer.println("                case " + entry.getValue() + ": return (T) new " + entry.getKey().getQualifiedName() + "();");
+
+        writer.println("                default: throw new IllegalStateException(\"Unknown factory id \" + id + \".\");");
+        writer.println("            }");
+        writer.println("        }");
+        writer.println("    }");
+        writer.println("}");
+    }
+
+    private TypeMirror getBuilderObjectType(TypeElement type) {
+        DeclaredType declaredType = (DeclaredType) type.asType();
+        TypeMirror objectType = null;
+
+        for (ExecutableElement method : ElementFilter.methodsIn(processingEnv.getElementUtils().getAllMembers(type))) {
+            if (method.getSimpleName().contentEquals("createObject")
+                    && method.getParameters().size() == 2
+                    && isType(method.getParameters().get(0).asType(), QNAME_TYPE)
+                    && isType(method.getParameters().get(1).asType(), Object.class.getName())) {
+                ExecutableType executableType = (ExecutableType) processingEnv.getTypeUtils().asMemberOf(declaredType, method);
+                TypeMirror candidate = processingEnv.getTypeUtils().erasure(executableType.getReturnType());
+                if (objectType == null || processingEnv.getTypeUtils().isSubtype(candidate, objectType))
+                    objectType = candidate;
+            }
+        }
+
+        return objectType;
+    }
+
+    private TypeMirror getSerializerObjectType(TypeElement type) {
+        TypeElement current = type;
+        TypeMirror objectType = null;
+
+        do {
+            for (ExecutableElement method : ElementFilter.methodsIn(current.getEnclosedElements())) {
+                if (!method.getModifiers().contains(Modifier.PUBLIC))
+                    continue;
+
+                TypeMirror candidateType = null;
+                List<TypeMirror> parameters = new ArrayList<>();
+                method.getParameters().forEach(p -> parameters.add(p.asType()));
+
+                switch (method.getSimpleName().toString()) {
+                    case "createElement":
+                        if (parameters.size() == 2
+                                && isClass(parameters.get(0))
+                                && isType(parameters.get(1), NAMESPACES_TYPE))
+                            candidateType = parameters.get(0);
+                        break;
+                    case "writeChildElements":
+                        if (parameters.size() == 3
+                                && isClass(parameters.get(0))
+                                && isType(parameters.get(1), NAMESPACES_TYPE)
+                                && isType(parameters.get(2), WRITER_TYPE))
+                            candidateType = parameters.get(0);
+                        break;
+                }
+
+                if (candidateType != null) {
+                    if (objectType != null && !processingEnv.getTypeUtils().isSameType(candidateType, objectType)) {
+                        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                                "The serializer " + type.getQualifiedName() + " uses different object types: " +
+                                        objectType + " and " + candidateType + ".", type);
+                        return null;
+                    }
+
+                    objectType = candidateType;
+                }
+            }
+
+            TypeMirror superclass = current.getSuperclass();
+            current = superclass.getKind() == TypeKind.DECLARED ?
+                    (TypeElement) ((DeclaredType) superclass).asElement() :
+                    null;
+        } while (objectType == null && current != null && !current.getQualifiedName().contentEquals(Object.class.getName()));
+
+        return objectType != null ? objectType : processingEnv.getElementUtils().getTypeElement(Object.class.getName()).asType();
+    }
+
+    private List<XMLElement> getElements(TypeElement type) {
+        List<XMLElement> elements = new ArrayList<>();
+        XMLElement element = type.getAnnotation(XMLElement.class);
+        if (element != null)
+            elements.add(element);
+        else {
+            XMLElements annotation = type.getAnnotation(XMLElements.class);
+            if (annotation != null) {
+                for (XMLElement child : annotation.value())
+                    elements.add(child);
+            }
+        }
+
+        return elements;
+    }
+
+    private String getFactory(TypeElement type, Map<TypeElement, Integer> factories) {
+        Integer id = factories.get(type);
+        return id != null ? "new Factory<>(" + id + ")" : "null";
+    }
+
+    private boolean isInstantiable(TypeElement type) {
+        if (!isAccessible(type))
+            return false;
+
+        for (ExecutableElement constructor : ElementFilter.constructorsIn(type.getEnclosedElements())) {
+            if (constructor.getParameters().isEmpty() && constructor.getModifiers().contains(Modifier.PUBLIC))
+                return true;
+        }
+
+        return false;
+    }
+
+    private String getClassLiteral(TypeMirror type) {
+        if (type == null)
+            return "null";
+
+        TypeMirror erasure = processingEnv.getTypeUtils().erasure(type);
+        TypeMirror component = erasure;
+        while (component.getKind() == TypeKind.ARRAY)
+            component = ((ArrayType) component).getComponentType();
+
+        if (component.getKind() == TypeKind.DECLARED) {
+            if (!isAccessible((TypeElement) ((DeclaredType) component).asElement()))
+                return "null";
+        } else if (!component.getKind().isPrimitive())
+            return "null";
+
+        return erasure + ".class";
+    }
+
+    private boolean isAccessible(TypeElement type) {
+        Element element = type;
+        while (element instanceof TypeElement) {
+            TypeElement current = (TypeElement) element;
+            if (!current.getModifiers().contains(Modifier.PUBLIC))
+                return false;
+
+            if (current.getNestingKind() == NestingKind.MEMBER) {
+                if (!current.getModifiers().contains(Modifier.STATIC) && current.getKind() == ElementKind.CLASS)
+                    return false;
+            } else if (current.getNestingKind() != NestingKind.TOP_LEVEL)
+                return false;
+
+            element = current.getEnclosingElement();
+        }
+
+        return true;
+    }
+
+    private boolean isSubtype(TypeElement type, String superType) {
+        TypeElement element = processingEnv.getElementUtils().getTypeElement(superType);
+        return element != null && processingEnv.getTypeUtils().isSubtype(
+                processingEnv.getTypeUtils().erasure(type.asType()),
+                processingEnv.getTypeUtils().erasure(element.asType()));
+    }
+
+    private boolean isType(TypeMirror type, String name) {
+        TypeMirror erasure = processingEnv.getTypeUtils().erasure(type);
+        return erasure.getKind() == TypeKind.DECLARED
+                && ((TypeElement) ((DeclaredType) erasure).asElement()).getQualifiedName().contentEquals(name);
+    }
+
+    private boolean isClass(TypeMirror type) {
+        switch (type.getKind()) {
+            case DECLARED:
+                return ((DeclaredType) type).getTypeArguments().isEmpty();
+            case ARRAY:
+                return isClass(((ArrayType) type).getComponentType());
+            default:
+                return type.getKind().isPrimitive();
+        }
+    }
+
+    private String getTypesHash() {
+        Set<String> names = new TreeSet<>();
+        for (TypeElement type : types)
+            names.add(type.getQualifiedName().toString());
+
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (String name : names) {
+                digest.update(name.getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) '\n');
+            }
+
+            StringBuilder hash = new StringBuilder();
+            byte[] bytes = digest.digest();
+            for (int i = 0; i < 8; i++)
+                hash.append(String.format("%02x", bytes[i]));
+
+            return hash.toString();
+        } catch (NoSuchAlgorithmException e) {
+            return Integer.toHexString(String.join("\n", names).hashCode());
+        }
+    }
+
+    private String getCommonPackage() {
+        String common = null;
+        for (TypeElement type : types) {
+            String packageName = getPackage(type).getQualifiedName().toString();
+            if (common == null)
+                common = packageName;
+            else {
+                while (!common.isEmpty() && !packageName.equals(common) && !packageName.startsWith(common + "."))
+                    common = common.lastIndexOf('.') != -1 ? common.substring(0, common.lastIndexOf('.')) : "";
+            }
+        }
+
+        return common != null ? common : "";
+    }
+
+    private PackageElement getPackage(Element element) {
+        while (!(element instanceof PackageElement))
+            element = element.getEnclosingElement();
+
+        return (PackageElement) element;
+    }
+
+    private String toLiteral(String value) {
+        StringBuilder builder = new StringBuilder("\"");
+        for (char c : value.toCharArray()) {
+            switch (c) {
+                case '"':
+                    builder.append("\\\"");
+                    break;
+                case '\\':
+                    builder.append("\\\\");
+                    break;
+                default:
+                    if (c < 0x20 || c > 0x7e)
+                        builder.append(String.format("\\u%04x", (int) c));
+                    else
+                        builder.append(c);
+            }
+        }
+
+        return builder.append('"').toString();
+    }
+}
@@ -20,26 +20,33 @@
 package org.xmlobjects.stream;
 
 import org.w3c.dom.Element;
+import org.xmlobjects.xml.GenericElement;
 
 import java.util.function.Consumer;
 
 public class BuildResult<T> {
-    private final static BuildResult<?> EMPTY = new BuildResult<>(null, null);
+    private final static BuildResult<?> EMPTY = new BuildResult<>(null, null, null);
 
     private final T object;
     private final Element element;
+    private final GenericElement genericElement;
 
-    private BuildResult(T object, Element element) {
+    private BuildResult(T object, Element element, GenericElement genericElement) {
         this.object = object;
         this.element = element;
+        this.genericElement = genericElement;
     }
 
     public static <T> BuildResult<T> of(T object) {
-        return new BuildResult<>(object, null);
+        return new BuildResult<>(object, null, null);
     }
 
     public static <T> BuildResult<T> of(Element element) {
-        return new BuildResult<>(null, element);
+        return new BuildResult<>(null, element, null);
+    }
+
+    public static <T> BuildResult<T> of(GenericElement genericElement) {
+        return new BuildResult<>(null, null, genericElement);
     }
 
     @SuppressWarnings("unchecked")
@@ -72,4 +79,17 @@ public class BuildResult<T> {
     public Element getDOMElement(){
         return element;
     }
+
+    public boolean isSetGenericElement() {
+        return genericElement != null;
+    }
+
+    public void ifGenericElement(Consumer<GenericElement> action) {
+        if (isSetGenericElement())
+            action.accept(genericElement);
+    }
+
+    public GenericElement getGenericElement() {
+        return genericElement;
+    }
 }
@@ -0,0 +1,72 @@
+/*
+ * xml-objects - A simple and lightweight XML-to-object mapping library
+ * https://github.com/xmlobjects
+ *
+ * Copyright 2019-2020 Claus Nagel <claus.nagel@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.xmlobjects.stream;
+
+import java.util.concurrent.TimeUnit;
+
+public class FlushPolicy {
+    private int objects;
+    private long characters;
+    private long interval;
+
+    private FlushPolicy() {
+    }
+
+    public static FlushPolicy newInstance() {
+        return new FlushPolicy();
+    }
+
+    public int getObjects() {
+        return objects;
+    }
+
+    public FlushPolicy afterObjects(int objects) {
+        this.objects = Math.max(objects, 0);
+        return this;
+    }
+
+    public long getCharacters() {
+        return characters;
+    }
+
+    public FlushPolicy afterCharacters(long characters) {
+        this.characters = Math.max(characters, 0);
+        return this;
+    }
+
+    public long getInterval(TimeUnit unit) {
+        return unit.convert(interval, TimeUnit.NANOSECONDS);
+    }
+
+    public FlushPolicy afterInterval(long interval, TimeUnit unit) {
+        this.interval = Math.max(unit.toNanos(interval), 0);
+        return this;
+    }
+
+    boolean isTimed() {
+        return interval > 0;
+    }
+
+    boolean shouldFlush(int objects, long characters, long elapsed) {
+        return (this.objects > 0 && objects >= this.objects)
+                || (this.characters > 0 && characters >= this.characters)
+                || (interval > 0 && elapsed >= interval);
+    }
+}
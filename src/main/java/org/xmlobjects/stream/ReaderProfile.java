@@ -0,0 +1,94 @@
+/*
+ * xml-objects - A simple and lightweight XML-to-object mapping library
+ * https://github.com/xmlobjects
+ *
+ * Copyright 2019-2020 Claus Nagel <claus.nagel@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.xmlobjects.stream;
+
+import javax.xml.stream.XMLInputFactory;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+public enum ReaderProfile {
+    DEFAULT("default", Collections.emptyMap()),
+    THROUGHPUT("throughput", properties(
+            XMLInputFactory.IS_COALESCING, false,
+            XMLInputFactory.IS_REPLACING_ENTITY_REFERENCES, true,
+            XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false,
+            XMLInputFactory.SUPPORT_DTD, false,
+            "org.codehaus.stax2.internNames", true,
+            "org.codehaus.stax2.internNsUris", true,
+            "org.codehaus.stax2.preserveLocation", false,
+            "com.ctc.wstx.lazyParsing", true,
+            "com.ctc.wstx.inputBufferLength", 65536)),
+    LOW_MEMORY("low-memory", properties(
+            XMLInputFactory.IS_COALESCING, false,
+            XMLInputFactory.IS_REPLACING_ENTITY_REFERENCES, true,
+            XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false,
+            XMLInputFactory.SUPPORT_DTD, false,
+            "org.codehaus.stax2.internNames", true,
+            "org.codehaus.stax2.internNsUris", true,
+            "com.ctc.wstx.lazyParsing", true,
+            "com.ctc.wstx.inputBufferLength", 4096,
+            "com.ctc.wstx.minTextSegment", 64));
+
+    private final String name;
+    private final Map<String, Object> properties;
+
+    ReaderProfile(String name, Map<String, Object> properties) {
+        this.name = name;
+        this.properties = properties;
+    }
+
+    public static ReaderProfile of(String name) {
+        for (ReaderProfile profile : values()) {
+            if (profile.name.equalsIgnoreCase(name))
+                return profile;
+        }
+
+        throw new IllegalArgumentException("Unknown reader profile " + name + ".");
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Map<String, Object> getProperties() {
+        return properties;
+    }
+
+    void apply(XMLInputFactory factory) {
+        for (Map.Entry<String, Object> property : properties.entrySet()) {
+            if (factory.isPropertySupported(property.getKey())) {
+                try {
+                    factory.setProperty(property.getKey(), property.getValue());
+                } catch (IllegalArgumentException e) {
+                    //
+                }
+            }
+        }
+    }
+
+    private static Map<String, Object> properties(Object... entries) {
+        Map<String, Object> properties = new HashMap<>();
+        for (int i = 0; i < entries.length; i += 2)
+            properties.put((String) entries[i], entries[i + 1]);
+
+        return Collections.unmodifiableMap(properties);
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * xml-objects - A simple and lightweight XML-to-object mapping library
+ * https://github.com/xmlobjects
+ *
+ * Copyright 2019-2020 Claus Nagel <claus.nagel@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.xmlobjects.stream;
+
+import javax.xml.stream.XMLInputFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.ServiceLoader;
+
+public interface StAXBackend {
+    String getName();
+
+    XMLInputFactory newInputFactory() throws XMLReadException;
+
+    default boolean isAvailable() {
+        return true;
+    }
+
+    default void configure(XMLInputFactory factory, ReaderProfile profile) {
+    }
+
+    static StAXBackend of(String name) {
+        for (StAXBackend backend : getBackends()) {
+            if (backend.getName().equalsIgnoreCase(name))
+                return backend;
+        }
+
+        throw new IllegalArgumentException("Unknown StAX backend " + name + ".");
+    }
+
+    static List<StAXBackend> getBackends() {
+        List<StAXBackend> backends = new ArrayList<>(Arrays.asList(StandardStAXBackend.values()));
+        for (StAXBackend backend : ServiceLoader.load(StAXBackend.class))
+            backends.add(backend);
+
+        return backends;
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * xml-objects - A simple and lightweight XML-to-object mapping library
+ * https://github.com/xmlobjects
+ *
+ * Copyright 2019-2020 Claus Nagel <claus.nagel@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.xmlobjects.stream;
+
+import javax.xml.stream.XMLInputFactory;
+import java.lang.reflect.Method;
+
+public enum StandardStAXBackend implements StAXBackend {
+    DEFAULT("default", null),
+    JDK("jdk", "com.sun.xml.internal.stream.XMLInputFactoryImpl"),
+    WOODSTOX("woodstox", "com.ctc.wstx.stax.WstxInputFactory"),
+    AALTO("aalto", "com.fasterxml.aalto.stax.InputFactoryImpl");
+
+    private final String name;
+    private final String className;
+
+    StandardStAXBackend(String name, String className) {
+        this.name = name;
+        this.className = className;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public boolean isAvailable() {
+        if (className == null || this == JDK)
+            return true;
+
+        try {
+            Class.forName(className, false, StandardStAXBackend.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public XMLInputFactory newInputFactory() throws XMLReadException {
+        try {
+            if (className == null)
+                return XMLInputFactory.newFactory();
+
+            if (this == JDK) {
+                try {
+                    Method method = XMLInputFactory.class.getMethod("newDefaultFactory");
+                    return (XMLInputFactory) method.invoke(null);
+                } catch (NoSuchMethodException e) {
+                    //
+                }
+            }
+
+            return (XMLInputFactory) Class.forName(className, true, StandardStAXBackend.class.getClassLoader())
+                    .getDeclaredConstructor()
+                    .newInstance();
+        } catch (Throwable e) {
+            throw new XMLReadException("Failed to create an XML input factory for the " + name + " backend.", e);
+        }
+    }
+}
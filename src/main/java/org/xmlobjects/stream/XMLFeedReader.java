@@ -0,0 +1,294 @@
+/*
+ * xml-objects - A simple and lightweight XML-to-object mapping library
+ * https://github.com/xmlobjects
+ *
+ * Copyright 2019-2020 Claus Nagel <claus.nagel@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.xmlobjects.stream;
+
+import org.xmlobjects.builder.ObjectBuildException;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Objects;
+
+public class XMLFeedReader<T> {
+    private final XMLReaderFactory factory;
+    private final Class<T> objectType;
+    private final Deque<T> objects = new ArrayDeque<>();
+
+    private byte[] data = new byte[8192];
+    private int start;
+    private int end;
+    private int pos;
+    private int depth;
+    private int memberStart = -1;
+    private byte[] rootStart;
+    private byte[] rootEnd;
+    private boolean rootClosed;
+    private boolean endOfInput;
+    private T object;
+
+    public enum Status {
+        OBJECT,
+        NEED_MORE_INPUT,
+        END_OF_INPUT
+    }
+
+    XMLFeedReader(XMLReaderFactory factory, Class<T> objectType) {
+        this.factory = factory;
+        this.objectType = Objects.requireNonNull(objectType, "Object type must not be null.");
+    }
+
+    public void feed(ByteBuffer buffer) {
+        if (endOfInput)
+            throw new IllegalStateException("Illegal to call feed after endOfInput.");
+
+        int length = buffer.remaining();
+        if (rootClosed) {
+            buffer.position(buffer.limit());
+            return;
+        }
+
+        if (start > 0) {
+            System.arraycopy(data, start, data, 0, end - start);
+            end -= start;
+            pos -= start;
+            if (memberStart != -1)
+                memberStart -= start;
+
+            start = 0;
+        }
+
+        if (end + length > data.length)
+            data = Arrays.copyOf(data, Math.max(data.length * 2, end + length));
+
+        buffer.get(data, end, length);
+        end += length;
+    }
+
+    public void feed(byte[] bytes, int offset, int length) {
+        feed(ByteBuffer.wrap(bytes, offset, length));
+    }
+
+    public void endOfInput() {
+        endOfInput = true;
+    }
+
+    public Status next() throws ObjectBuildException, XMLReadException {
+        object = null;
+        while (objects.isEmpty()) {
+            if (!scan()) {
+                if (!endOfInput)
+                    return Status.NEED_MORE_INPUT;
+                else if (!rootClosed)
+                    throw new XMLReadException("Unexpected end of XML input.");
+                else
+                    return Status.END_OF_INPUT;
+            }
+        }
+
+        object = objects.poll();
+        return Status.OBJECT;
+    }
+
+    public T getObject() {
+        return object;
+    }
+
+    private boolean scan() throws ObjectBuildException, XMLReadException {
+        while (!rootClosed && pos < end) {
+            if (depth == 1 && memberStart == -1)
+                start = pos;
+
+            if (data[pos] != '<') {
+                pos = indexOf((byte) '<', pos);
+                if (pos == -1)
+                    pos = end;
+
+                continue;
+            }
+
+            int markupEnd = getMarkupEnd(pos);
+            if (markupEnd == -1)
+                return false;
+
+            byte type = data[pos + 1];
+            if (type == '/') {
+                pos = markupEnd;
+                if (--depth == 1)
+                    return processMember();
+                else if (depth == 0)
+                    rootClosed = true;
+            } else if (type == '?' || type == '!') {
+                pos = markupEnd;
+            } else {
+                boolean empty = data[markupEnd - 2] == '/';
+                if (depth == 0) {
+                    if (rootStart != null)
+                        throw new XMLReadException("The XML input has more than one root element.");
+
+                    rootStart = Arrays.copyOfRange(data, start, markupEnd);
+                    rootEnd = ("</" + getName(pos + 1) + ">").getBytes(StandardCharsets.UTF_8);
+                    rootClosed = empty;
+                    depth = 1;
+                    pos = start = markupEnd;
+                    continue;
+                }
+
+                if (depth == 1)
+                    memberStart = pos;
+
+                pos = markupEnd;
+                if (!empty)
+                    depth++;
+                else if (depth == 1)
+                    return processMember();
+            }
+        }
+
+        if (rootClosed)
+            start = pos = end;
+
+        return false;
+    }
+
+    private boolean processMember() throws ObjectBuildException, XMLReadException {
+        InputStream stream = new SequenceInputStream(new SequenceInputStream(
+                new ByteArrayInputStream(rootStart),
+                new ByteArrayInputStream(data, memberStart, pos - memberStart)),
+                new ByteArrayInputStream(rootEnd));
+
+        try (XMLReader reader = factory.createReader(stream)) {
+            while (reader.hasNext()) {
+                if (reader.nextTag() == EventType.START_ELEMENT && reader.getDepth() > 1) {
+                    T object = reader.getObject(objectType);
+                    if (object != null)
+                        objects.add(object);
+                }
+            }
+        }
+
+        memberStart = -1;
+        start = pos;
+        return true;
+    }
+
+    private int getMarkupEnd(int offset) {
+        if (end - offset < 2)
+            return -1;
+
+        switch (data[offset + 1]) {
+            case '?':
+                return indexOf("?>", offset + 2);
+            case '/':
+                int index = indexOf((byte) '>', offset + 2);
+                return index != -1 ? index + 1 : -1;
+            case '!':
+                if (startsWith("<!--", offset))
+                    return indexOf("-->", offset + 4);
+                else if (startsWith("<![CDATA[", offset))
+                    return indexOf("]]>", offset + 9);
+                else if (end - offset < 9)
+                    return -1;
+                else
+                    return getDeclarationEnd(offset + 2);
+            default:
+                return getTagEnd(offset + 1);
+        }
+    }
+
+    private int getTagEnd(int offset) {
+        byte quote = 0;
+        for (int i = offset; i < end; i++) {
+            byte b = data[i];
+            if (quote != 0) {
+                if (b == quote)
+                    quote = 0;
+            } else if (b == '"' || b == '\'')
+                quote = b;
+            else if (b == '>')
+                return i + 1;
+        }
+
+        return -1;
+    }
+
+    private int getDeclarationEnd(int offset) {
+        byte quote = 0;
+        int brackets = 0;
+        for (int i = offset; i < end; i++) {
+            byte b = data[i];
+            if (quote != 0) {
+                if (b == quote)
+                    quote = 0;
+            } else if (b == '"' || b == '\'')
+                quote = b;
+            else if (b == '[')
+                brackets++;
+            else if (b == ']')
+                brackets--;
+            else if (b == '>' && brackets == 0)
+                return i + 1;
+        }
+
+        return -1;
+    }
+
+    private String getName(int offset) {
+        int i = offset;
+        while (i < end && data[i] != '>' && data[i] != '/' && data[i] > ' ')
+            i++;
+
+        return new String(data, offset, i - offset, StandardCharsets.UTF_8);
+    }
+
+    private boolean startsWith(String prefix, int offset) {
+        if (end - offset < prefix.length())
+            return false;
+
+        for (int i = 0; i < prefix.length(); i++) {
+            if (data[offset + i] != prefix.charAt(i))
+                return false;
+        }
+
+        return true;
+    }
+
+    private int indexOf(byte b, int offset) {
+        for (int i = offset; i < end; i++) {
+            if (data[i] == b)
+                return i;
+        }
+
+        return -1;
+    }
+
+    private int indexOf(String s, int offset) {
+        for (int i = offset; i <= end - s.length(); i++) {
+            if (startsWith(s, i))
+                return i + s.length();
+        }
+
+        return -1;
+    }
+}
@@ -45,6 +45,10 @@ public abstract class XMLOutput<T extends XMLOutput<?>> extends SAXFilter implem
 
     public abstract void flush() throws Exception;
 
+    public long getCharacterCount() {
+        return -1;
+    }
+
     NamespaceSupport getPrefixMapping() {
         return prefixMapping;
     }
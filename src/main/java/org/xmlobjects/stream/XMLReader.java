@@ -20,47 +20,60 @@
 package org.xmlobjects.stream;
 
 import org.w3c.dom.Element;
-import org.w3c.dom.Node;
+import org.w3c.dom.DOMException;
 import org.xml.sax.SAXException;
 import org.xmlobjects.XMLObjects;
+import org.xmlobjects.annotation.Stateful;
 import org.xmlobjects.builder.ObjectBuildException;
 import org.xmlobjects.builder.ObjectBuilder;
 import org.xmlobjects.schema.SchemaHandler;
 import org.xmlobjects.util.Properties;
 import org.xmlobjects.util.xml.DepthXMLStreamReader;
+import org.xmlobjects.util.xml.SAXBuffer;
 import org.xmlobjects.util.xml.SAXWriter;
+import org.xmlobjects.util.xml.StAXStream2DOM;
 import org.xmlobjects.util.xml.StAXStream2SAX;
+import org.xmlobjects.util.xml.SymbolTable.Symbol;
 import org.xmlobjects.xml.Attributes;
+import org.xmlobjects.xml.GenericElement;
+import org.xmlobjects.xml.MixedContent;
 import org.xmlobjects.xml.Namespaces;
 import org.xmlobjects.xml.TextContent;
 
+import javax.xml.XMLConstants;
+import javax.xml.namespace.NamespaceContext;
 import javax.xml.namespace.QName;
+import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.stream.XMLStreamConstants;
 import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.XMLStreamReader;
-import javax.xml.transform.Transformer;
-import javax.xml.transform.TransformerConfigurationException;
-import javax.xml.transform.TransformerException;
-import javax.xml.transform.TransformerFactory;
-import javax.xml.transform.dom.DOMResult;
-import javax.xml.transform.stax.StAXSource;
+import java.io.Closeable;
 import java.io.IOException;
 import java.io.StringWriter;
-import java.lang.ref.WeakReference;
 import java.net.URI;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.IdentityHashMap;
 import java.util.Map;
+import java.util.Iterator;
 import java.util.Objects;
+import java.util.Set;
 
 public class XMLReader implements AutoCloseable {
     private final XMLObjects xmlObjects;
     private final DepthXMLStreamReader reader;
 
     private final Map<Class<?>, ObjectBuilder<?>> builderCache = new IdentityHashMap<>();
-    private WeakReference<?> parent = new WeakReference<>(null);
+    private Object[] ancestors = new Object[16];
+    private int size;
     private boolean createDOMAsFallback;
+    private boolean createGenericElementAsFallback;
     private Properties properties;
-    private Transformer transformer;
+    private boolean reuseDOMDocument;
+    private StAXStream2DOM domBuilder;
+    private boolean reusable;
+    private boolean closed;
+    private Closeable input;
 
     XMLReader(XMLObjects xmlObjects, XMLStreamReader reader, URI baseURI) {
         this.xmlObjects = Objects.requireNonNull(xmlObjects, "XML objects must not be null.");
@@ -99,6 +112,24 @@ public class XMLReader implements AutoCloseable {
         this.createDOMAsFallback = createDOMAsFallback;
     }
 
+    public boolean isCreateGenericElementAsFallback() {
+        return createGenericElementAsFallback;
+    }
+
+    void createGenericElementAsFallback(boolean createGenericElementAsFallback) {
+        this.createGenericElementAsFallback = createGenericElementAsFallback;
+    }
+
+    public boolean isReuseDOMDocument() {
+        return reuseDOMDocument;
+    }
+
+    void reuseDOMDocument(boolean reuseDOMDocument) {
+        this.reuseDOMDocument = reuseDOMDocument;
+        if (domBuilder != null)
+            domBuilder.reuseDocument(reuseDOMDocument);
+    }
+
     public URI getBaseURI() {
         return reader.getBaseURI();
     }
@@ -114,13 +145,40 @@ public class XMLReader implements AutoCloseable {
         this.properties = new Properties(properties);
     }
 
+    void setReusable(boolean reusable) {
+        this.reusable = reusable;
+    }
+
+    void setInput(Closeable input) {
+        this.input = input;
+    }
+
+    boolean isClosed() {
+        return closed;
+    }
+
+    void reset(XMLStreamReader reader, URI baseURI) {
+        this.reader.reset(reader, baseURI);
+        builderCache.values().removeIf(builder -> builder.getClass().isAnnotationPresent(Stateful.class));
+        closed = false;
+    }
+
     @Override
     public void close() throws XMLReadException {
         try {
-            parent.clear();
-            builderCache.clear();
+            Arrays.fill(ancestors, 0, size, null);
+            size = 0;
+            if (!reusable)
+                builderCache.clear();
+
+            closed = true;
             reader.close();
-        } catch (XMLStreamException e) {
+
+            if (input != null) {
+                input.close();
+                input = null;
+            }
+        } catch (XMLStreamException | IOException e) {
             throw new XMLReadException("Caused by:", e);
         }
     }
@@ -162,14 +220,45 @@ public class XMLReader implements AutoCloseable {
         return reader.getName();
     }
 
+    public Object getParent() {
+        return size > 0 ? ancestors[size - 1] : null;
+    }
+
+    public Object getParent(int level) {
+        return level >= 0 && level < size ? ancestors[size - 1 - level] : null;
+    }
+
+    public <T> T getAncestor(Class<T> type) {
+        for (int i = size - 1; i >= 0; i--) {
+            if (type.isInstance(ancestors[i]))
+                return type.cast(ancestors[i]);
+        }
+
+        return null;
+    }
+
+    public Symbol getSymbol() throws XMLReadException {
+        if (reader.getEventType() != XMLStreamConstants.START_ELEMENT && reader.getEventType() != XMLStreamConstants.END_ELEMENT)
+            throw new XMLReadException("Illegal to call getSymbol when event is neither START_ELEMENT nor END_ELEMENT.");
+
+        return reader.getSymbol();
+    }
+
     public <T> T getObject(Class<T> type) throws ObjectBuildException, XMLReadException {
         if (reader.getEventType() != XMLStreamConstants.START_ELEMENT)
             throw new XMLReadException("Illegal to call getObject when event is not START_ELEMENT.");
 
-        QName name = reader.getName();
-        ObjectBuilder<T> builder = xmlObjects.getBuilder(name, type);
+        Symbol symbol = reader.getSymbol();
+        QName name = symbol.getName();
+        ObjectBuilder<T> builder;
+        try {
+            builder = xmlObjects.getBuilder(symbol, type);
+        } catch (IllegalStateException e) {
+            throw new ObjectBuildException("Failed to create the builder for the XML element " + name + ".", e);
+        }
+
         if (builder != null) {
-            T object = builder.createObject(name, parent.get());
+            T object = builder.createObject(name, getParent());
             if (object == null)
                 throw new ObjectBuildException("The builder " + builder.getClass().getName() + " created a null value.");
 
@@ -187,7 +276,7 @@ public class XMLReader implements AutoCloseable {
             throw new XMLReadException("Illegal to call getObjectUsingBuilder when event is not START_ELEMENT.");
 
         QName name = reader.getName();
-        T object = builder.createObject(name, parent.get());
+        T object = builder.createObject(name, getParent());
         if (object == null)
             throw new ObjectBuildException("The builder " + builder.getClass().getName() + " created a null value.");
 
@@ -203,7 +292,13 @@ public class XMLReader implements AutoCloseable {
             throw new XMLReadException("Illegal to call fillObject when event is not START_ELEMENT.");
 
         QName name = reader.getName();
-        ObjectBuilder<T> builder = xmlObjects.getBuilder(name, (Class<T>) object.getClass());
+        ObjectBuilder<T> builder;
+        try {
+            builder = xmlObjects.getBuilder(name, (Class<T>) object.getClass());
+        } catch (IllegalStateException e) {
+            throw new ObjectBuildException("Failed to create the builder for the XML element " + name + ".", e);
+        }
+
         return builder != null ? processObject(object, name, builder) : null;
     }
 
@@ -222,9 +317,11 @@ public class XMLReader implements AutoCloseable {
     }
 
     private <T> T processObject(T object, QName name, ObjectBuilder<T> builder) throws ObjectBuildException, XMLReadException {
-        WeakReference<?> previous = parent;
+        if (size == ancestors.length)
+            ancestors = Arrays.copyOf(ancestors, size * 2);
+
+        ancestors[size++] = object;
         try {
-            parent = new WeakReference<>(object);
             int stopAt = reader.getDepth() - 1;
             int childLevel = reader.getDepth() + 1;
 
@@ -237,9 +334,14 @@ public class XMLReader implements AutoCloseable {
                     int state = reader.getState();
                     builder.buildChildObject(object, reader.getName(), getAttributes(), this);
 
-                    // continue if the reader is at the next start element
-                    if (reader.getEventType() == XMLStreamConstants.START_ELEMENT && state != reader.getState())
-                        continue;
+                    if (reader.getEventType() == XMLStreamConstants.START_ELEMENT) {
+                        // continue if the reader is at the next start element
+                        if (state != reader.getState())
+                            continue;
+
+                        // skip the child element if the builder did not consume it
+                        reader.skipElement();
+                    }
                 }
 
                 if (reader.getEventType() == XMLStreamConstants.END_ELEMENT) {
@@ -259,36 +361,34 @@ public class XMLReader implements AutoCloseable {
         } catch (XMLStreamException e) {
             throw new XMLReadException("Caused by:", e);
         } finally {
-            parent = previous;
+            ancestors[--size] = null;
         }
     }
 
-    public Element getDOMElement() throws XMLReadException {
+    public void skipElement() throws XMLReadException {
         if (reader.getEventType() != XMLStreamConstants.START_ELEMENT)
-            throw new XMLReadException("Illegal to call getDOMElement when event is not START_ELEMENT.");
+            throw new XMLReadException("Illegal to call skipElement when event is not START_ELEMENT.");
 
         try {
-            if (transformer == null)
-                transformer = TransformerFactory.newInstance().newTransformer();
+            reader.skipElement();
+        } catch (XMLStreamException e) {
+            throw new XMLReadException("Caused by:", e);
+        }
+    }
 
-            DOMResult result = new DOMResult();
-            transformer.transform(new StAXSource(reader), result);
-            Node node = result.getNode();
+    public Element getDOMElement() throws XMLReadException {
+        if (reader.getEventType() != XMLStreamConstants.START_ELEMENT)
+            throw new XMLReadException("Illegal to call getDOMElement when event is not START_ELEMENT.");
 
-            if (node.hasChildNodes()) {
-                Node child = node.getFirstChild();
-                if (child.getNodeType() == Node.ELEMENT_NODE)
-                    return (Element) child;
-            }
+        try {
+            if (domBuilder == null)
+                domBuilder = new StAXStream2DOM().reuseDocument(reuseDOMDocument);
 
-            return null;
-        } catch (TransformerConfigurationException e) {
-            throw new XMLReadException("Failed to initialize DOM transformer.", e);
-        } catch (TransformerException e) {
+            return domBuilder.createElement(reader);
+        } catch (ParserConfigurationException e) {
+            throw new XMLReadException("Failed to initialize DOM builder.", e);
+        } catch (XMLStreamException | DOMException e) {
             throw new XMLReadException("Failed to read XML content as DOM element.", e);
-        } finally {
-            if (transformer != null)
-                transformer.reset();
         }
     }
 
@@ -296,6 +396,8 @@ public class XMLReader implements AutoCloseable {
         T object = getObject(type);
         if (object != null)
             return BuildResult.of(object);
+        else if (createGenericElementAsFallback)
+            return BuildResult.of(getGenericElement());
         else if (createDOMAsFallback) {
             Element element = getDOMElement();
             if (element != null)
@@ -309,11 +411,7 @@ public class XMLReader implements AutoCloseable {
         if (reader.getEventType() != XMLStreamConstants.START_ELEMENT)
             throw new XMLReadException("Illegal to call getAttributes when event is not START_ELEMENT.");
 
-        Attributes attributes = new Attributes();
-        for (int i = 0; i < reader.getAttributeCount(); i++)
-            attributes.add(reader.getAttributeName(i), reader.getAttributeValue(i));
-
-        return attributes;
+        return Attributes.of(reader);
     }
 
     public TextContent getTextContent() throws XMLReadException {
@@ -341,6 +439,28 @@ public class XMLReader implements AutoCloseable {
         }
     }
 
+    public void readText(CharSink sink) throws ObjectBuildException, XMLReadException {
+        try {
+            boolean shouldParse = true;
+
+            while (shouldParse && reader.hasNext()) {
+                int eventType = reader.next();
+                switch (eventType) {
+                    case XMLStreamReader.CHARACTERS:
+                    case XMLStreamReader.CDATA:
+                        sink.accept(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+                        break;
+                    case XMLStreamConstants.START_ELEMENT:
+                    case XMLStreamReader.END_ELEMENT:
+                        shouldParse = false;
+                        break;
+                }
+            }
+        } catch (XMLStreamException e) {
+            throw new XMLReadException("Caused by:", e);
+        }
+    }
+
     public String getMixedContent() throws XMLReadException {
         if (reader.getEventType() != XMLStreamConstants.START_ELEMENT)
             throw new XMLReadException("Illegal to call getMixedContent when event is not START_ELEMENT.");
@@ -361,8 +481,92 @@ public class XMLReader implements AutoCloseable {
         }
     }
 
+    public MixedContent getMixedContentValue() throws XMLReadException {
+        if (reader.getEventType() != XMLStreamConstants.START_ELEMENT)
+            throw new XMLReadException("Illegal to call getMixedContentValue when event is not START_ELEMENT.");
+
+        try {
+            SAXBuffer buffer = new SAXBuffer();
+            int stopAt = reader.getDepth() - 1;
+            StAXStream2SAX mapper = new StAXStream2SAX(buffer);
+
+            // capture content of start element as SAX events
+            while (reader.next() != XMLStreamConstants.END_ELEMENT || reader.getDepth() > stopAt)
+                mapper.bridgeEvent(reader);
+
+            return MixedContent.of(buffer);
+        } catch (SAXException | XMLStreamException e) {
+            throw new XMLReadException("Caused by:", e);
+        }
+    }
+
+    public SAXBuffer getSAXBuffer() throws XMLReadException {
+        if (reader.getEventType() != XMLStreamConstants.START_ELEMENT)
+            throw new XMLReadException("Illegal to call getSAXBuffer when event is not START_ELEMENT.");
+
+        try {
+            SAXBuffer buffer = new SAXBuffer();
+            int stopAt = reader.getDepth() - 1;
+            StAXStream2SAX mapper = new StAXStream2SAX(buffer);
+
+            buffer.addStartDocument();
+
+            // declare in-scope namespaces inherited from ancestor elements
+            Set<String> prefixes = new HashSet<>();
+            for (int i = 0; i < reader.getNamespaceCount(); i++) {
+                String prefix = reader.getNamespacePrefix(i);
+                prefixes.add(prefix != null ? prefix : XMLConstants.DEFAULT_NS_PREFIX);
+            }
+
+            NamespaceContext context = reader.getNamespaceContext();
+            for (String namespaceURI : reader.getNamespaces().get()) {
+                for (Iterator<?> iter = context.getPrefixes(namespaceURI); iter.hasNext(); ) {
+                    String prefix = (String) iter.next();
+                    if (prefixes.add(prefix))
+                        buffer.addNamespacePrefixMapping(prefix, namespaceURI);
+                }
+            }
+
+            do {
+                mapper.bridgeEvent(reader);
+            } while (reader.next() != XMLStreamConstants.END_ELEMENT || reader.getDepth() > stopAt);
+
+            mapper.bridgeEvent(reader);
+            buffer.addEndDocument();
+
+            return buffer;
+        } catch (SAXException | XMLStreamException e) {
+            throw new XMLReadException("Caused by:", e);
+        }
+    }
+
+    public GenericElement getGenericElement() throws XMLReadException {
+        if (reader.getEventType() != XMLStreamConstants.START_ELEMENT)
+            throw new XMLReadException("Illegal to call getGenericElement when event is not START_ELEMENT.");
+
+        return GenericElement.of(reader.getName(), getSAXBuffer());
+    }
+
+    public XMLReader createReader(SAXBuffer buffer) {
+        XMLReader reader = new XMLReader(xmlObjects, buffer.toXMLStreamReader(true), getBaseURI());
+        reader.createDOMAsFallback(createDOMAsFallback);
+        reader.createGenericElementAsFallback(createGenericElementAsFallback);
+        reader.reuseDOMDocument(reuseDOMDocument);
+        reader.setProperties(getProperties());
+
+        return reader;
+    }
+
+    /**
+     * Returns a builder of the given type. Unless the type is annotated with
+     * {@link Stateful}, the builder is a single instance that is shared by all
+     * readers and threads of the {@code XMLObjects} context and must therefore be
+     * thread-safe. Stateful builders are created once per reader instead.
+     */
     public <T> ObjectBuilder<T> getOrCreateBuilder(Class<? extends ObjectBuilder<T>> type) throws ObjectBuildException {
-        ObjectBuilder<T> builder;
+        ObjectBuilder<T> builder = xmlObjects.getSharedBuilder(type);
+        if (builder != null)
+            return builder;
 
         ObjectBuilder<?> cachedBuilder = builderCache.get(type);
         if (cachedBuilder != null)
@@ -371,8 +575,10 @@ public class XMLReader implements AutoCloseable {
             try {
                 builder = type.getDeclaredConstructor().newInstance();
                 builderCache.put(type, builder);
+            } catch (NoSuchMethodException e) {
+                throw new ObjectBuildException("The builder " + type.getName() + " lacks a default constructor.", e);
             } catch (Exception e) {
-                throw new ObjectBuildException("The builder " + type.getName() + " lacks a default constructor.");
+                throw new ObjectBuildException("Failed to create an instance of the builder " + type.getName() + ".", e);
             }
         }
 
@@ -23,6 +23,10 @@ import org.xmlobjects.XMLObjects;
 import org.xmlobjects.schema.SchemaHandler;
 import org.xmlobjects.util.Properties;
 import org.xmlobjects.util.SystemIDResolver;
+import org.xmlobjects.util.io.ByteBufferInputStream;
+import org.xmlobjects.util.io.ReadAheadInputStream;
+import org.xmlobjects.util.xml.DepthXMLStreamReader;
+import org.xmlobjects.util.xml.UTF8StreamReader;
 
 import javax.xml.stream.StreamFilter;
 import javax.xml.stream.XMLInputFactory;
@@ -39,22 +43,40 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.Reader;
 import java.net.URI;
+import java.nio.ByteBuffer;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Arrays;
 import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
 
 public class XMLReaderFactory {
+    private static final int READ_AHEAD_BUFFER_SIZE = 65536;
+    private static final int READ_AHEAD_BUFFERS = 4;
+
     private final XMLObjects xmlObjects;
-    private final XMLInputFactory xmlInputFactory;
     private final Properties properties = new Properties();
+    private final ThreadLocal<XMLReader> readers = new ThreadLocal<>();
 
+    private XMLInputFactory xmlInputFactory;
+    private StAXBackend backend = StandardStAXBackend.DEFAULT;
+    private ReaderProfile profile = ReaderProfile.DEFAULT;
     private SchemaHandler schemaHandler;
     private boolean createDOMAsFallback;
+    private boolean createGenericElementAsFallback;
+    private boolean reuseDOMDocument;
+    private boolean useMemoryMapping;
+    private boolean useBuiltInParser;
+    private boolean reuseReaders;
+    private boolean decompressInput = true;
 
-    private XMLReaderFactory(XMLObjects xmlObjects) {
+    private XMLReaderFactory(XMLObjects xmlObjects) throws XMLReadException {
         this.xmlObjects = Objects.requireNonNull(xmlObjects, "XML objects must not be null.");
-        xmlInputFactory = XMLInputFactory.newFactory();
-        xmlInputFactory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+        xmlInputFactory = createInputFactory(backend, profile);
     }
 
     public static XMLReaderFactory newInstance(XMLObjects xmlObjects) throws XMLReadException {
@@ -65,6 +87,57 @@ public class XMLReaderFactory {
         }
     }
 
+    public StAXBackend getBackend() {
+        return backend;
+    }
+
+    public XMLReaderFactory withBackend(StAXBackend backend) throws XMLReadException {
+        xmlInputFactory = createInputFactory(Objects.requireNonNull(backend, "The StAX backend must not be null."), profile);
+        this.backend = backend;
+        return this;
+    }
+
+    public XMLReaderFactory withBackend(String name) throws XMLReadException {
+        StAXBackend backend;
+        try {
+            backend = StAXBackend.of(name);
+        } catch (IllegalArgumentException e) {
+            throw new XMLReadException("Unknown StAX backend " + name + " (available backends: " + StAXBackend.getBackends().stream()
+                    .map(StAXBackend::getName)
+                    .collect(Collectors.joining(", ")) + ").", e);
+        }
+
+        return withBackend(backend);
+    }
+
+    public ReaderProfile getProfile() {
+        return profile;
+    }
+
+    public XMLReaderFactory withProfile(ReaderProfile profile) throws XMLReadException {
+        xmlInputFactory = createInputFactory(backend, Objects.requireNonNull(profile, "The reader profile must not be null."));
+        this.profile = profile;
+        return this;
+    }
+
+    public XMLReaderFactory withProfile(String name) throws XMLReadException {
+        ReaderProfile profile;
+        try {
+            profile = ReaderProfile.of(name);
+        } catch (IllegalArgumentException e) {
+            throw new XMLReadException("Unknown reader profile " + name + " (available profiles: " + Arrays.stream(ReaderProfile.values())
+                    .map(ReaderProfile::getName)
+                    .collect(Collectors.joining(", ")) + ").", e);
+        }
+
+        return withProfile(profile);
+    }
+
+    public String getActiveBackend() {
+        String backend = this.backend.getName() + " (" + xmlInputFactory.getClass().getName() + ", " + profile.getName() + " profile)";
+        return useBuiltInParser ? "built-in UTF-8 parser, falling back to " + backend : backend;
+    }
+
     public SchemaHandler getSchemaHandler() {
         return schemaHandler;
     }
@@ -83,6 +156,63 @@ public class XMLReaderFactory {
         return this;
     }
 
+    public boolean isCreateGenericElementAsFallback() {
+        return createGenericElementAsFallback;
+    }
+
+    public XMLReaderFactory createGenericElementAsFallback(boolean createGenericElementAsFallback) {
+        this.createGenericElementAsFallback = createGenericElementAsFallback;
+        return this;
+    }
+
+    public boolean isReuseDOMDocument() {
+        return reuseDOMDocument;
+    }
+
+    public XMLReaderFactory reuseDOMDocument(boolean reuseDOMDocument) {
+        this.reuseDOMDocument = reuseDOMDocument;
+        return this;
+    }
+
+    public boolean isUseMemoryMapping() {
+        return useMemoryMapping;
+    }
+
+    public XMLReaderFactory useMemoryMapping(boolean useMemoryMapping) {
+        this.useMemoryMapping = useMemoryMapping;
+        return this;
+    }
+
+    public boolean isUseBuiltInParser() {
+        return useBuiltInParser;
+    }
+
+    public XMLReaderFactory useBuiltInParser(boolean useBuiltInParser) {
+        this.useBuiltInParser = useBuiltInParser;
+        return this;
+    }
+
+    public boolean isReuseReaders() {
+        return reuseReaders;
+    }
+
+    public XMLReaderFactory reuseReaders(boolean reuseReaders) {
+        this.reuseReaders = reuseReaders;
+        if (!reuseReaders)
+            readers.remove();
+
+        return this;
+    }
+
+    public boolean isDecompressInput() {
+        return decompressInput;
+    }
+
+    public XMLReaderFactory decompressInput(boolean decompressInput) {
+        this.decompressInput = decompressInput;
+        return this;
+    }
+
     public XMLReporter getXMLReporter() {
         return xmlInputFactory.getXMLReporter();
     }
@@ -110,25 +240,45 @@ public class XMLReaderFactory {
         return this;
     }
 
+    public <T> XMLFeedReader<T> createFeedReader(Class<T> objectType) {
+        return new XMLFeedReader<>(this, objectType);
+    }
+
     public XMLReader createReader(File file) throws XMLReadException {
+        if (useMemoryMapping)
+            return createReader(file.toPath());
+
         try {
-            return createReader(xmlInputFactory.createXMLStreamReader(new BufferedInputStream(new FileInputStream(file))), file.toURI().normalize());
-        } catch (XMLStreamException | FileNotFoundException e) {
+            return createFileReader(new BufferedInputStream(new FileInputStream(file)), file.toURI().normalize());
+        } catch (FileNotFoundException e) {
             throw new XMLReadException("Caused by:", e);
         }
     }
 
     public XMLReader createReader(Path path) throws XMLReadException {
+        InputStream stream;
         try {
-            return createReader(xmlInputFactory.createXMLStreamReader(new BufferedInputStream(Files.newInputStream(path))), path.toUri().normalize());
-        } catch (XMLStreamException | IOException e) {
+            stream = useMemoryMapping ?
+                    ByteBufferInputStream.map(path) :
+                    new BufferedInputStream(Files.newInputStream(path));
+        } catch (IOException e) {
             throw new XMLReadException("Caused by:", e);
         }
+
+        return createFileReader(stream, path.toUri().normalize());
+    }
+
+    public XMLReader createReader(ByteBuffer buffer) throws XMLReadException {
+        return createReader(new ByteBufferInputStream(buffer));
+    }
+
+    public XMLReader createReader(ByteBuffer buffer, String encoding) throws XMLReadException {
+        return createReader(new ByteBufferInputStream(buffer), encoding);
     }
 
     public XMLReader createReader(InputStream stream) throws XMLReadException {
         try {
-            return createReader(xmlInputFactory.createXMLStreamReader(stream));
+            return createReader(createStreamReader(null, stream, null));
         } catch (XMLStreamException e) {
             throw new XMLReadException("Caused by:", e);
         }
@@ -136,7 +286,7 @@ public class XMLReaderFactory {
 
     public XMLReader createReader(InputStream stream, String encoding) throws XMLReadException {
         try {
-            return createReader(xmlInputFactory.createXMLStreamReader(stream, encoding));
+            return createReader(createStreamReader(null, stream, encoding));
         } catch (XMLStreamException e) {
             throw new XMLReadException("Caused by:", e);
         }
@@ -144,7 +294,7 @@ public class XMLReaderFactory {
 
     public XMLReader createReader(String systemId, InputStream stream) throws XMLReadException {
         try {
-            return createReader(xmlInputFactory.createXMLStreamReader(systemId, stream), createBaseURI(systemId));
+            return createReader(createStreamReader(systemId, stream, null), createBaseURI(systemId));
         } catch (XMLStreamException e) {
             throw new XMLReadException("Caused by:", e);
         }
@@ -152,7 +302,7 @@ public class XMLReaderFactory {
 
     public XMLReader createReader(String systemId, InputStream stream, String encoding) throws XMLReadException {
         try {
-            return createReader(xmlInputFactory.createXMLStreamReader(stream, encoding), createBaseURI(systemId));
+            return createReader(createStreamReader(systemId, stream, encoding), createBaseURI(systemId));
         } catch (XMLStreamException e) {
             throw new XMLReadException("Caused by:", e);
         }
@@ -187,9 +337,14 @@ public class XMLReaderFactory {
     }
 
     public XMLReader createReader(XMLStreamReader reader, URI baseURI) {
-        XMLReader xmlReader = new XMLReader(xmlObjects, reader, baseURI);
+        XMLReader xmlReader = reuseReaders ?
+                getReusableReader(reader, baseURI) :
+                new XMLReader(xmlObjects, reader, baseURI);
+
         xmlReader.setSchemaHandler(schemaHandler);
         xmlReader.createDOMAsFallback(createDOMAsFallback);
+        xmlReader.createGenericElementAsFallback(createGenericElementAsFallback);
+        xmlReader.reuseDOMDocument(reuseDOMDocument);
         xmlReader.setProperties(properties);
 
         return xmlReader;
@@ -203,6 +358,141 @@ public class XMLReaderFactory {
         }
     }
 
+    private XMLReader createFileReader(InputStream stream, URI baseURI) throws XMLReadException {
+        try {
+            if (decompressInput)
+                stream = decompress(stream);
+
+            XMLReader xmlReader = createReader(createStreamReader(null, stream, null), baseURI);
+            xmlReader.setInput(stream);
+            return xmlReader;
+        } catch (XMLStreamException | IOException e) {
+            try {
+                stream.close();
+            } catch (IOException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+
+            throw new XMLReadException("Caused by:", e);
+        }
+    }
+
+    private InputStream decompress(InputStream stream) throws IOException {
+        if (!stream.markSupported())
+            stream = new BufferedInputStream(stream);
+
+        byte[] header = new byte[4];
+        int length = 0;
+        int read;
+
+        stream.mark(header.length);
+        while (length < header.length && (read = stream.read(header, length, header.length - length)) != -1)
+            length += read;
+
+        stream.reset();
+
+        InputStream decompressed;
+        if (length >= 2 && header[0] == (byte) 0x1f && header[1] == (byte) 0x8b)
+            decompressed = new GZIPInputStream(stream, READ_AHEAD_BUFFER_SIZE);
+        else if (length == 4 && header[0] == 'P' && header[1] == 'K' && header[2] == 3 && header[3] == 4) {
+            SingleFileZipInputStream zip = new SingleFileZipInputStream(stream);
+            if (!zip.openFile())
+                throw new IOException("The ZIP archive does not contain a file.");
+
+            decompressed = zip;
+        } else if (length >= 2 && (header[0] & 0x0f) == 8 && ((header[0] & 0xff) << 8 | (header[1] & 0xff)) % 31 == 0)
+            decompressed = new InflaterInputStream(stream);
+        else
+            return stream;
+
+        // inflate on a separate thread so that decompression and parsing overlap
+        return new ReadAheadInputStream(decompressed, READ_AHEAD_BUFFER_SIZE, READ_AHEAD_BUFFERS);
+    }
+
+    private static ZipEntry getNextFile(ZipInputStream zip) throws IOException {
+        ZipEntry entry;
+        while ((entry = zip.getNextEntry()) != null && entry.isDirectory()) ;
+        return entry;
+    }
+
+    private XMLStreamReader createStreamReader(String systemId, InputStream stream, String encoding) throws XMLStreamException {
+        if (useBuiltInParser && (encoding == null || UTF8StreamReader.isSupportedEncoding(encoding))) {
+            if (!stream.markSupported())
+                stream = new BufferedInputStream(stream);
+
+            try {
+                if (UTF8StreamReader.isSupported(stream)) {
+                    UTF8StreamReader reader = getReusableStreamReader();
+                    if (reader != null) {
+                        reader.reset(stream, systemId);
+                        return reader;
+                    }
+
+                    return new UTF8StreamReader(stream, systemId);
+                }
+            } catch (IOException e) {
+                throw new XMLStreamException("Failed to read from the input stream.", e);
+            }
+        }
+
+        if (encoding != null)
+            return xmlInputFactory.createXMLStreamReader(stream, encoding);
+        else if (systemId != null)
+            return xmlInputFactory.createXMLStreamReader(systemId, stream);
+        else
+            return xmlInputFactory.createXMLStreamReader(stream);
+    }
+
+    private XMLReader getReusableReader(XMLStreamReader reader, URI baseURI) {
+        XMLReader xmlReader = readers.get();
+        if (xmlReader != null) {
+            if (!xmlReader.isClosed())
+                return new XMLReader(xmlObjects, reader, baseURI);
+
+            xmlReader.reset(reader, baseURI);
+        } else {
+            xmlReader = new XMLReader(xmlObjects, reader, baseURI);
+            xmlReader.setReusable(true);
+            readers.set(xmlReader);
+        }
+
+        return xmlReader;
+    }
+
+    private UTF8StreamReader getReusableStreamReader() {
+        if (reuseReaders) {
+            XMLReader xmlReader = readers.get();
+            if (xmlReader != null && xmlReader.isClosed()) {
+                XMLStreamReader reader = ((DepthXMLStreamReader) xmlReader.getStreamReader()).getReader();
+                if (reader instanceof UTF8StreamReader)
+                    return (UTF8StreamReader) reader;
+            }
+        }
+
+        return null;
+    }
+
+    private XMLInputFactory createInputFactory(StAXBackend backend, ReaderProfile profile) throws XMLReadException {
+        if (!backend.isAvailable())
+            throw new XMLReadException("The StAX backend " + backend.getName() + " is not available.");
+
+        XMLInputFactory factory = backend.newInputFactory();
+        try {
+            factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+            profile.apply(factory);
+            backend.configure(factory, profile);
+        } catch (IllegalArgumentException e) {
+            throw new XMLReadException("Failed to configure the " + backend.getName() + " backend.", e);
+        }
+
+        if (xmlInputFactory != null) {
+            factory.setXMLReporter(xmlInputFactory.getXMLReporter());
+            factory.setXMLResolver(xmlInputFactory.getXMLResolver());
+        }
+
+        return factory;
+    }
+
     private URI createBaseURI(String systemId) {
         try {
             return new URI(SystemIDResolver.getAbsoluteURI(systemId)).normalize();
@@ -210,4 +500,30 @@ public class XMLReaderFactory {
             return URI.create("");
         }
     }
+
+    private static class SingleFileZipInputStream extends ZipInputStream {
+        private boolean open;
+        private boolean endOfFile;
+
+        SingleFileZipInputStream(InputStream stream) {
+            super(stream);
+        }
+
+        boolean openFile() throws IOException {
+            return open = getNextFile(this) != null;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) throws IOException {
+            int read = super.read(bytes, offset, length);
+            if (read == -1 && open && !endOfFile) {
+                endOfFile = true;
+                ZipEntry entry = getNextFile(this);
+                if (entry != null)
+                    throw new IOException("The ZIP archive contains more than one file (found " + entry.getName() + ").");
+            }
+
+            return read;
+        }
+    }
 }
@@ -23,6 +23,7 @@ import org.xml.sax.ContentHandler;
 import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
 import org.xml.sax.helpers.AttributesImpl;
+import org.xml.sax.helpers.DefaultHandler;
 import org.xmlobjects.XMLObjects;
 import org.xmlobjects.serializer.ObjectSerializeException;
 import org.xmlobjects.serializer.ObjectSerializer;
@@ -32,9 +33,12 @@ import org.xmlobjects.util.xml.SAXFilter;
 import org.xmlobjects.xml.Attributes;
 import org.xmlobjects.xml.Element;
 import org.xmlobjects.xml.ElementContent;
+import org.xmlobjects.xml.GenericElement;
+import org.xmlobjects.xml.MixedContent;
 import org.xmlobjects.xml.Namespaces;
 import org.xmlobjects.xml.TextContent;
 
+import javax.xml.XMLConstants;
 import javax.xml.namespace.QName;
 import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.parsers.SAXParser;
@@ -50,7 +54,11 @@ import java.io.StringReader;
 import java.util.ArrayDeque;
 import java.util.Deque;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
 
 public class XMLWriter implements AutoCloseable {
     private final XMLObjects xmlObjects;
@@ -192,6 +200,47 @@ public class XMLWriter implements AutoCloseable {
         writeElement(null, object, namespaces);
     }
 
+    public void writeObjects(Iterator<?> objects, Namespaces namespaces, FlushPolicy policy) throws ObjectSerializeException, XMLWriteException {
+        int count = 0;
+        long characters = output.getCharacterCount();
+        long time = policy != null && policy.isTimed() ? System.nanoTime() : 0;
+
+        while (objects.hasNext()) {
+            writeObject(objects.next(), namespaces);
+
+            if (policy != null) {
+                count++;
+                long now = policy.isTimed() ? System.nanoTime() : 0;
+                if (policy.shouldFlush(count, output.getCharacterCount() - characters, now - time)) {
+                    flush();
+                    count = 0;
+                    characters = output.getCharacterCount();
+                    time = now;
+                }
+            }
+        }
+    }
+
+    public void writeObjects(Iterator<?> objects, Namespaces namespaces) throws ObjectSerializeException, XMLWriteException {
+        writeObjects(objects, namespaces, null);
+    }
+
+    public void writeObjects(Iterable<?> objects, Namespaces namespaces, FlushPolicy policy) throws ObjectSerializeException, XMLWriteException {
+        writeObjects(objects.iterator(), namespaces, policy);
+    }
+
+    public void writeObjects(Iterable<?> objects, Namespaces namespaces) throws ObjectSerializeException, XMLWriteException {
+        writeObjects(objects.iterator(), namespaces, null);
+    }
+
+    public void writeObjects(Stream<?> objects, Namespaces namespaces, FlushPolicy policy) throws ObjectSerializeException, XMLWriteException {
+        writeObjects(objects.iterator(), namespaces, policy);
+    }
+
+    public void writeObjects(Stream<?> objects, Namespaces namespaces) throws ObjectSerializeException, XMLWriteException {
+        writeObjects(objects.iterator(), namespaces, null);
+    }
+
     public <T> void writeObjectUsingSerializer(T object, Class<? extends ObjectSerializer<T>> type, Namespaces namespaces) throws ObjectSerializeException, XMLWriteException {
         writeElementUsingSerializer(null, object, type, namespaces);
     }
@@ -203,7 +252,14 @@ public class XMLWriter implements AutoCloseable {
     @SuppressWarnings("unchecked")
     public <T> void writeElement(Element element, T object, Namespaces namespaces) throws ObjectSerializeException, XMLWriteException {
         if (object != null) {
-            ObjectSerializer<T> serializer = (ObjectSerializer<T>) xmlObjects.getSerializer(object.getClass(), namespaces);
+            ObjectSerializer<T> serializer;
+            try {
+                serializer = (ObjectSerializer<T>) xmlObjects.getSerializer(object.getClass(), namespaces);
+            } catch (IllegalStateException e) {
+                throw new ObjectSerializeException("Failed to create the serializer for the object type " +
+                        object.getClass().getName() + ".", e);
+            }
+
             if (serializer != null)
                 writeElementUsingSerializer(element, object, serializer, namespaces);
         }
@@ -339,6 +395,20 @@ public class XMLWriter implements AutoCloseable {
         }
     }
 
+    public void writeGenericElement(GenericElement element) throws XMLWriteException {
+        if (element == null)
+            return;
+
+        try {
+            // only declare the inherited namespaces that are used by the fragment
+            PrefixCollector collector = new PrefixCollector();
+            element.send(collector);
+            element.send(new GenericElementHandler(output, collector.prefixes));
+        } catch (SAXException e) {
+            throw new XMLWriteException("Failed to write generic element as XML content.", e);
+        }
+    }
+
     public void writeMixedContent(String mixedContent) throws XMLWriteException {
         try {
             if (parser == null) {
@@ -361,8 +431,28 @@ public class XMLWriter implements AutoCloseable {
         }
     }
 
+    public void writeMixedContent(MixedContent mixedContent) throws XMLWriteException {
+        if (mixedContent == null)
+            return;
+
+        try {
+            mixedContent.send(output);
+        } catch (SAXException e) {
+            throw new XMLWriteException("Failed to write mixed content.", e);
+        }
+    }
+
+    /**
+     * Returns a serializer of the given type. Unless the type is annotated with
+     * {@link org.xmlobjects.annotation.Stateful}, the serializer is a single
+     * instance that is shared by all writers and threads of the {@code XMLObjects}
+     * context and must therefore be thread-safe. Stateful serializers are created
+     * once per writer instead.
+     */
     public <T> ObjectSerializer<T> getOrCreateSerializer(Class<? extends ObjectSerializer<T>> type) throws ObjectSerializeException {
-        ObjectSerializer<T> serializer;
+        ObjectSerializer<T> serializer = xmlObjects.getSharedSerializer(type);
+        if (serializer != null)
+            return serializer;
 
         // get serializer from cache or create a new instance
         ObjectSerializer<?> cachedSerializer = serializerCache.get(type.getName());
@@ -372,8 +462,10 @@ public class XMLWriter implements AutoCloseable {
             try {
                 serializer = type.getDeclaredConstructor().newInstance();
                 serializerCache.put(type.getName(), serializer);
+            } catch (NoSuchMethodException e) {
+                throw new ObjectSerializeException("The serializer " + type.getName() + " lacks a default constructor.", e);
             } catch (Exception e) {
-                throw new ObjectSerializeException("The serializer " + type.getName() + " lacks a default constructor.");
+                throw new ObjectSerializeException("Failed to create an instance of the serializer " + type.getName() + ".", e);
             }
         }
 
@@ -434,6 +526,66 @@ public class XMLWriter implements AutoCloseable {
         }
     }
 
+    private static class GenericElementHandler extends DOMHandler {
+        private final Set<String> prefixes;
+        private int depth;
+
+        GenericElementHandler(ContentHandler parent, Set<String> prefixes) {
+            super(parent);
+            this.prefixes = prefixes;
+        }
+
+        @Override
+        public void startPrefixMapping(String prefix, String uri) throws SAXException {
+            if (depth > 0 || prefixes.contains(prefix))
+                super.startPrefixMapping(prefix, uri);
+        }
+
+        @Override
+        public void endPrefixMapping(String prefix) throws SAXException {
+            if (depth > 0 || prefixes.contains(prefix))
+                super.endPrefixMapping(prefix);
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, org.xml.sax.Attributes atts) throws SAXException {
+            depth++;
+            super.startElement(uri, localName, qName, atts);
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) throws SAXException {
+            super.endElement(uri, localName, qName);
+            depth--;
+        }
+    }
+
+    private static class PrefixCollector extends DefaultHandler {
+        private final Set<String> prefixes = new HashSet<>();
+
+        @Override
+        public void startElement(String uri, String localName, String qName, org.xml.sax.Attributes attributes) {
+            if (!uri.isEmpty())
+                prefixes.add(getPrefix(qName));
+
+            for (int i = 0; i < attributes.getLength(); i++) {
+                if (!attributes.getURI(i).isEmpty())
+                    prefixes.add(getPrefix(attributes.getQName(i)));
+
+                // attribute values may contain qualified names such as xsi:type values
+                String value = attributes.getValue(i);
+                int index = value.indexOf(':');
+                if (index > 0)
+                    prefixes.add(value.substring(0, index).trim());
+            }
+        }
+
+        private String getPrefix(String qName) {
+            int index = qName.indexOf(':');
+            return index != -1 ? qName.substring(0, index) : XMLConstants.DEFAULT_NS_PREFIX;
+        }
+    }
+
     private static class MixedContentBuffer extends SAXBuffer {
         int depth = 0;
 
@@ -37,6 +37,8 @@ import java.util.Objects;
 public abstract class CompositeObjectAdapter<T> implements ObjectBuilder<T>, ObjectSerializer<T> {
     private final Class<? extends ObjectBuilder<T>> builder;
     private final Class<? extends ObjectSerializer<T>> serializer;
+    private volatile ObjectBuilder<T> delegateBuilder;
+    private volatile ObjectSerializer<T> delegateSerializer;
 
     @SuppressWarnings("unchecked")
     public <S extends ObjectBuilder<? super T> & ObjectSerializer<? super T>> CompositeObjectAdapter(Class<S> adapter) {
@@ -46,21 +48,47 @@ public abstract class CompositeObjectAdapter<T> implements ObjectBuilder<T>, Obj
 
     @Override
     public void initializeObject(T object, QName name, Attributes attributes, XMLReader reader) throws ObjectBuildException, XMLReadException {
-        reader.getOrCreateBuilder(builder).initializeObject(object, name, attributes, reader);
+        getBuilder(reader).initializeObject(object, name, attributes, reader);
     }
 
     @Override
     public void buildChildObject(T object, QName name, Attributes attributes, XMLReader reader) throws ObjectBuildException, XMLReadException {
-        reader.getOrCreateBuilder(builder).buildChildObject(object, name, attributes, reader);
+        getBuilder(reader).buildChildObject(object, name, attributes, reader);
     }
 
     @Override
     public void initializeElement(Element element, T object, Namespaces namespaces, XMLWriter writer) throws ObjectSerializeException, XMLWriteException {
-        writer.getOrCreateSerializer(serializer).initializeElement(element, object, namespaces, writer);
+        getSerializer(writer).initializeElement(element, object, namespaces, writer);
     }
 
     @Override
     public void writeChildElements(T object, Namespaces namespaces, XMLWriter writer) throws ObjectSerializeException, XMLWriteException {
-        writer.getOrCreateSerializer(serializer).writeChildElements(object, namespaces, writer);
+        getSerializer(writer).writeChildElements(object, namespaces, writer);
+    }
+
+    private ObjectBuilder<T> getBuilder(XMLReader reader) throws ObjectBuildException {
+        ObjectBuilder<T> delegate = this.delegateBuilder;
+        if (delegate == null) {
+            delegate = reader.getXMLObjects().getSharedBuilder(builder);
+            if (delegate == null)
+                return reader.getOrCreateBuilder(builder);
+
+            delegateBuilder = delegate;
+        }
+
+        return delegate;
+    }
+
+    private ObjectSerializer<T> getSerializer(XMLWriter writer) throws ObjectSerializeException {
+        ObjectSerializer<T> delegate = this.delegateSerializer;
+        if (delegate == null) {
+            delegate = writer.getXMLObjects().getSharedSerializer(serializer);
+            if (delegate == null)
+                return writer.getOrCreateSerializer(serializer);
+
+            delegateSerializer = delegate;
+        }
+
+        return delegate;
     }
 }
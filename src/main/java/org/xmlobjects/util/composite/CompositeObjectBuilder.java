@@ -30,6 +30,7 @@ import java.util.Objects;
 
 public abstract class CompositeObjectBuilder<T> implements ObjectBuilder<T> {
     private final Class<? extends ObjectBuilder<T>> builder;
+    private volatile ObjectBuilder<T> delegateBuilder;
 
     @SuppressWarnings("unchecked")
     public <S extends ObjectBuilder<? super T>> CompositeObjectBuilder(Class<S> adapter) {
@@ -38,11 +39,24 @@ public abstract class CompositeObjectBuilder<T> implements ObjectBuilder<T> {
 
     @Override
     public void initializeObject(T object, QName name, Attributes attributes, XMLReader reader) throws ObjectBuildException, XMLReadException {
-        reader.getOrCreateBuilder(builder).initializeObject(object, name, attributes, reader);
+        getBuilder(reader).initializeObject(object, name, attributes, reader);
     }
 
     @Override
     public void buildChildObject(T object, QName name, Attributes attributes, XMLReader reader) throws ObjectBuildException, XMLReadException {
-        reader.getOrCreateBuilder(builder).buildChildObject(object, name, attributes, reader);
+        getBuilder(reader).buildChildObject(object, name, attributes, reader);
+    }
+
+    private ObjectBuilder<T> getBuilder(XMLReader reader) throws ObjectBuildException {
+        ObjectBuilder<T> delegate = this.delegateBuilder;
+        if (delegate == null) {
+            delegate = reader.getXMLObjects().getSharedBuilder(builder);
+            if (delegate == null)
+                return reader.getOrCreateBuilder(builder);
+
+            delegateBuilder = delegate;
+        }
+
+        return delegate;
     }
 }
@@ -30,6 +30,7 @@ import java.util.Objects;
 
 public abstract class CompositeObjectSerializer<T> implements ObjectSerializer<T> {
     private final Class<? extends ObjectSerializer<T>> serializer;
+    private volatile ObjectSerializer<T> delegateSerializer;
 
     @SuppressWarnings("unchecked")
     public <S extends ObjectSerializer<? super T>> CompositeObjectSerializer(Class<S> adapter) {
@@ -38,11 +39,24 @@ public abstract class CompositeObjectSerializer<T> implements ObjectSerializer<T
 
     @Override
     public void initializeElement(Element element, T object, Namespaces namespaces, XMLWriter writer) throws ObjectSerializeException, XMLWriteException {
-        writer.getOrCreateSerializer(serializer).initializeElement(element, object, namespaces, writer);
+        getSerializer(writer).initializeElement(element, object, namespaces, writer);
     }
 
     @Override
     public void writeChildElements(T object, Namespaces namespaces, XMLWriter writer) throws ObjectSerializeException, XMLWriteException {
-        writer.getOrCreateSerializer(serializer).writeChildElements(object, namespaces, writer);
+        getSerializer(writer).writeChildElements(object, namespaces, writer);
+    }
+
+    private ObjectSerializer<T> getSerializer(XMLWriter writer) throws ObjectSerializeException {
+        ObjectSerializer<T> delegate = this.delegateSerializer;
+        if (delegate == null) {
+            delegate = writer.getXMLObjects().getSharedSerializer(serializer);
+            if (delegate == null)
+                return writer.getOrCreateSerializer(serializer);
+
+            delegateSerializer = delegate;
+        }
+
+        return delegate;
     }
 }
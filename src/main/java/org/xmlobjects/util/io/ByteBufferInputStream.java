@@ -0,0 +1,163 @@
+/*
+ * xml-objects - A simple and lightweight XML-to-object mapping library
+ * https://github.com/xmlobjects
+ *
+ * Copyright 2019-2020 Claus Nagel <claus.nagel@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.xmlobjects.util.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+public class ByteBufferInputStream extends InputStream {
+    private static final long MAX_REGION_SIZE = 1L << 30;
+    private final ByteBuffer[] buffers;
+    private final int[] starts;
+    private int index;
+    private int released;
+    private long passed;
+    private int markIndex = -1;
+    private int markPosition;
+    private long markOffset;
+    private int markLimit;
+
+    public ByteBufferInputStream(ByteBuffer... buffers) {
+        this.buffers = new ByteBuffer[buffers.length];
+        starts = new int[buffers.length];
+        for (int i = 0; i < buffers.length; i++) {
+            this.buffers[i] = buffers[i].duplicate();
+            starts[i] = buffers[i].position();
+        }
+    }
+
+    public static ByteBufferInputStream map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            ByteBuffer[] regions = new ByteBuffer[(int) Math.max(1, (size + MAX_REGION_SIZE - 1) / MAX_REGION_SIZE)];
+            for (int i = 0; i < regions.length; i++) {
+                long position = i * MAX_REGION_SIZE;
+                regions[i] = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(MAX_REGION_SIZE, size - position));
+            }
+
+            return new ByteBufferInputStream(regions);
+        }
+    }
+
+    @Override
+    public int read() {
+        ByteBuffer buffer = next();
+        return buffer != null ? buffer.get() & 0xff : -1;
+    }
+
+    @Override
+    public int read(byte[] bytes, int offset, int length) {
+        if (length == 0)
+            return 0;
+
+        ByteBuffer buffer = next();
+        if (buffer == null)
+            return -1;
+
+        length = Math.min(length, buffer.remaining());
+        buffer.get(bytes, offset, length);
+        return length;
+    }
+
+    @Override
+    public long skip(long n) {
+        long skipped = 0;
+        ByteBuffer buffer;
+        while (skipped < n && (buffer = next()) != null) {
+            int length = (int) Math.min(n - skipped, buffer.remaining());
+            buffer.position(buffer.position() + length);
+            skipped += length;
+        }
+
+        return skipped;
+    }
+
+    @Override
+    public int available() {
+        ByteBuffer buffer = next();
+        return buffer != null ? buffer.remaining() : 0;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return true;
+    }
+
+    @Override
+    public void mark(int readLimit) {
+        ByteBuffer buffer = next();
+        markIndex = index;
+        markPosition = buffer != null ? buffer.position() : 0;
+        markOffset = passed + (buffer != null ? markPosition - starts[index] : 0);
+        markLimit = readLimit;
+    }
+
+    @Override
+    public void reset() throws IOException {
+        if (markIndex == -1)
+            throw new IOException("Resetting to invalid mark.");
+
+        for (int i = markIndex; i < index; i++)
+            passed -= buffers[i].limit() - starts[i];
+
+        for (int i = markIndex + 1; i <= index && i < buffers.length; i++)
+            buffers[i].position(starts[i]);
+
+        index = markIndex;
+        if (index < buffers.length)
+            buffers[index].position(markPosition);
+    }
+
+    @Override
+    public void close() {
+        markIndex = -1;
+        index = buffers.length;
+        release();
+    }
+
+    private ByteBuffer next() {
+        while (index < buffers.length) {
+            ByteBuffer buffer = buffers[index];
+            if (buffer == null)
+                return null;
+            else if (buffer.hasRemaining())
+                return buffer;
+
+            passed += buffer.limit() - starts[index++];
+            if (markIndex != -1 && passed - markOffset > markLimit)
+                markIndex = -1;
+
+            // release exhausted regions so that they can be unmapped
+            if (markIndex == -1)
+                release();
+        }
+
+        return null;
+    }
+
+    private void release() {
+        while (released < index)
+            buffers[released++] = null;
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * xml-objects - A simple and lightweight XML-to-object mapping library
+ * https://github.com/xmlobjects
+ *
+ * Copyright 2019-2020 Claus Nagel <claus.nagel@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.xmlobjects.util.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+public class ReadAheadInputStream extends InputStream {
+    private static final Chunk END_OF_INPUT = new Chunk(new byte[0]);
+    private static final long CLOSE_TIMEOUT = 1000;
+
+    private final InputStream stream;
+    private final BlockingQueue<Chunk> free;
+    private final BlockingQueue<Chunk> filled;
+    private final Thread thread;
+
+    private Chunk current;
+    private int position;
+    private boolean endOfInput;
+    private volatile boolean closed;
+    private volatile Throwable failure;
+
+    public ReadAheadInputStream(InputStream stream, int bufferSize, int buffers) {
+        if (bufferSize <= 0 || buffers <= 0)
+            throw new IllegalArgumentException("Buffer size and number of buffers must be positive.");
+
+        this.stream = stream;
+        free = new ArrayBlockingQueue<>(buffers);
+        filled = new ArrayBlockingQueue<>(buffers + 1);
+        for (int i = 0; i < buffers; i++)
+            free.add(new Chunk(new byte[bufferSize]));
+
+        thread = new Thread(this::readAhead, "xml-objects-read-ahead");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void readAhead() {
+        try {
+            while (!closed) {
+                Chunk chunk = free.take();
+                int length = 0;
+                int read;
+                while (length < chunk.bytes.length && (read = stream.read(chunk.bytes, length, chunk.bytes.length - length)) != -1)
+                    length += read;
+
+                chunk.length = length;
+                if (length > 0)
+                    filled.put(chunk);
+
+                if (length < chunk.bytes.length) {
+                    filled.put(END_OF_INPUT);
+                    break;
+                }
+            }
+        } catch (InterruptedException e) {
+            //
+        } catch (Throwable e) {
+            failure = e;
+            filled.offer(END_OF_INPUT);
+        }
+    }
+
+    @Override
+    public int read() throws IOException {
+        Chunk chunk = next();
+        return chunk != null ? chunk.bytes[position++] & 0xff : -1;
+    }
+
+    @Override
+    public int read(byte[] bytes, int offset, int length) throws IOException {
+        if (length == 0)
+            return 0;
+
+        Chunk chunk = next();
+        if (chunk == null)
+            return -1;
+
+        length = Math.min(length, chunk.length - position);
+        System.arraycopy(chunk.bytes, position, bytes, offset, length);
+        position += length;
+        return length;
+    }
+
+    @Override
+    public int available() {
+        return current != null ? current.length - position : 0;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!closed) {
+            closed = true;
+            thread.interrupt();
+            try {
+                // closing the stream first unblocks a read that does not react to the interrupt
+                stream.close();
+            } finally {
+                try {
+                    thread.join(CLOSE_TIMEOUT);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+
+                filled.clear();
+                current = null;
+            }
+        }
+    }
+
+    private Chunk next() throws IOException {
+        if (closed)
+            throw new IOException("The stream has been closed.");
+
+        if (current != null && position < current.length)
+            return current;
+
+        if (current != null) {
+            free.offer(current);
+            current = null;
+        }
+
+        if (endOfInput)
+            return null;
+
+        Chunk chunk;
+        try {
+            chunk = filled.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for input.");
+        }
+
+        if (chunk == END_OF_INPUT) {
+            endOfInput = true;
+            if (failure != null)
+                throw new IOException("Failed to read ahead from the input stream.", failure);
+
+            return null;
+        }
+
+        current = chunk;
+        position = 0;
+        return chunk;
+    }
+
+    private static final class Chunk {
+        private final byte[] bytes;
+        private int length;
+
+        Chunk(byte[] bytes) {
+            this.bytes = bytes;
+        }
+    }
+}
@@ -21,6 +21,7 @@ package org.xmlobjects.util.xml;
 
 import org.xmlobjects.schema.SchemaHandler;
 import org.xmlobjects.schema.SchemaHandlerException;
+import org.xmlobjects.util.xml.SymbolTable.Symbol;
 import org.xmlobjects.xml.Namespaces;
 
 import javax.xml.XMLConstants;
@@ -34,13 +35,16 @@ import java.net.URI;
 import java.util.Objects;
 
 public class DepthXMLStreamReader implements XMLStreamReader {
-    private final XMLStreamReader reader;
-    private final URI baseURI;
     private final Namespaces namespaces;
+    private final SymbolTable symbols = new SymbolTable();
 
+    private XMLStreamReader reader;
+    private URI baseURI;
     private SchemaHandler schemaHandler;
     private int depth;
     private int state;
+    private Symbol symbol;
+    private int symbolState = -1;
 
     public DepthXMLStreamReader(XMLStreamReader reader, URI baseURI) {
         this.reader = Objects.requireNonNull(reader, "XML stream reader must not be null.");
@@ -52,6 +56,17 @@ public class DepthXMLStreamReader implements XMLStreamReader {
         this(reader, URI.create(""));
     }
 
+    public void reset(XMLStreamReader reader, URI baseURI) {
+        this.reader = Objects.requireNonNull(reader, "XML stream reader must not be null.");
+        this.baseURI = Objects.requireNonNull(baseURI, "The base URI must not be null.");
+        namespaces.clear();
+        schemaHandler = null;
+        depth = 0;
+        state = 0;
+        symbol = null;
+        symbolState = -1;
+    }
+
     public XMLStreamReader getReader() {
         return reader;
     }
@@ -80,6 +95,19 @@ public class DepthXMLStreamReader implements XMLStreamReader {
         return state;
     }
 
+    public Symbol getSymbol() {
+        int event = reader.getEventType();
+        if (event != START_ELEMENT && event != END_ELEMENT)
+            throw new IllegalStateException("Illegal to call getSymbol when event is neither START_ELEMENT nor END_ELEMENT.");
+
+        if (symbolState != state) {
+            symbol = symbols.get(reader.getNamespaceURI(), reader.getLocalName(), reader.getPrefix());
+            symbolState = state;
+        }
+
+        return symbol;
+    }
+
     @Override
     public Object getProperty(String name) throws IllegalArgumentException {
         return reader.getProperty(name);
@@ -124,6 +152,24 @@ public class DepthXMLStreamReader implements XMLStreamReader {
         return event;
     }
 
+    public void skipElement() throws XMLStreamException {
+        if (reader.getEventType() != START_ELEMENT)
+            throw new IllegalStateException("Illegal to call skipElement when event is not START_ELEMENT.");
+
+        // fast-forward to the matching end tag without namespace and schema handling
+        int level = 1;
+        while (level > 0) {
+            int event = reader.next();
+            if (event == START_ELEMENT)
+                level++;
+            else if (event == END_ELEMENT)
+                level--;
+        }
+
+        state++;
+        depth--;
+    }
+
     @Override
     public void require(int type, String namespaceURI, String localName) throws XMLStreamException {
         reader.require(type,namespaceURI,localName);
@@ -302,7 +348,8 @@ public class DepthXMLStreamReader implements XMLStreamReader {
 
     @Override
     public QName getName() {
-        return reader.getName();
+        int event = reader.getEventType();
+        return event == START_ELEMENT || event == END_ELEMENT ? getSymbol().getName() : reader.getName();
     }
 
     @Override
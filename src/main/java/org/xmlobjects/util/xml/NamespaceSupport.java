@@ -43,10 +43,8 @@ public class NamespaceSupport {
     }
 
     public void createInternalPrefixes(XMLObjects xmlObjects) {
-        prefixes = new HashMap<>();
-        xmlObjects.getSerializableNamespaces().stream()
-                .sorted()
-                .forEach(n -> prefixes.put(n, "ns" + prefixCounter++));
+        prefixes = xmlObjects.getInternalPrefixes();
+        prefixCounter = prefixes.size() + 1;
     }
 
     public boolean requiresNextContext() {
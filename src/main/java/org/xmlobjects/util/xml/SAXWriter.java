@@ -27,6 +27,7 @@ import javax.xml.XMLConstants;
 import javax.xml.transform.stream.StreamResult;
 import java.io.BufferedWriter;
 import java.io.FileOutputStream;
+import java.io.FilterWriter;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
@@ -38,7 +39,7 @@ import java.util.Map;
 
 public class SAXWriter extends XMLOutput<SAXWriter> {
     private final String LINE_SEPARATOR = System.getProperty("line.separator");
-    private Writer writer;
+    private CountingWriter writer;
     private String encoding;
     private CharsetEncoder encoder;
 
@@ -94,19 +95,19 @@ public class SAXWriter extends XMLOutput<SAXWriter> {
 
     private void setOutput(Writer writer) {
         if (writer instanceof OutputStreamWriter) {
-            this.writer = new BufferedWriter(writer);
+            this.writer = new CountingWriter(new BufferedWriter(writer));
             String encoding = ((OutputStreamWriter) writer).getEncoding();
             if (encoding != null)
                 setEncoding(encoding);
         } else
-            this.writer = writer;
+            this.writer = new CountingWriter(writer);
     }
 
     private void setOutput(OutputStream outputStream, String encoding) throws IOException {
         if (encoding == null)
             encoding = System.getProperty("file.encoding", "UTF-8");
 
-        writer = new BufferedWriter(new OutputStreamWriter(outputStream, encoding));
+        writer = new CountingWriter(new BufferedWriter(new OutputStreamWriter(outputStream, encoding)));
         setEncoding(encoding);
     }
 
@@ -122,6 +123,11 @@ public class SAXWriter extends XMLOutput<SAXWriter> {
             writer.close();
     }
 
+    @Override
+    public long getCharacterCount() {
+        return writer != null ? writer.count : 0;
+    }
+
     public boolean isEscapeCharacters() {
         return escapeCharacters;
     }
@@ -227,8 +233,8 @@ public class SAXWriter extends XMLOutput<SAXWriter> {
         try {
             if (depth == 0 && lastEvent != XMLEvents.START_DOCUMENT) {
                 if (writeXMLDeclaration) {
-                    if (encoding == null && writer instanceof OutputStreamWriter) {
-                        encoding = ((OutputStreamWriter) writer).getEncoding();
+                    if (encoding == null && writer.getWriter() instanceof OutputStreamWriter) {
+                        encoding = ((OutputStreamWriter) writer.getWriter()).getEncoding();
                         if (encoding != null)
                             encoding = Charset.forName(encoding).name();
                     }
@@ -522,4 +528,34 @@ public class SAXWriter extends XMLOutput<SAXWriter> {
 
         writer.write(content, pos, end - pos);
     }
+
+    private static final class CountingWriter extends FilterWriter {
+        private long count;
+
+        CountingWriter(Writer writer) {
+            super(writer);
+        }
+
+        Writer getWriter() {
+            return out;
+        }
+
+        @Override
+        public void write(int c) throws IOException {
+            out.write(c);
+            count++;
+        }
+
+        @Override
+        public void write(char[] cbuf, int off, int len) throws IOException {
+            out.write(cbuf, off, len);
+            count += len;
+        }
+
+        @Override
+        public void write(String str, int off, int len) throws IOException {
+            out.write(str, off, len);
+            count += len;
+        }
+    }
 }
@@ -0,0 +1,140 @@
+/*
+ * xml-objects - A simple and lightweight XML-to-object mapping library
+ * https://github.com/xmlobjects
+ *
+ * Copyright 2019-2020 Claus Nagel <claus.nagel@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.xmlobjects.util.xml;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+public class StAXStream2DOM {
+    private final DocumentBuilder builder;
+    private boolean reuseDocument;
+    private Document document;
+
+    public StAXStream2DOM(DocumentBuilder builder) {
+        this.builder = builder;
+    }
+
+    public StAXStream2DOM() throws ParserConfigurationException {
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setNamespaceAware(true);
+        builder = factory.newDocumentBuilder();
+    }
+
+    public boolean isReuseDocument() {
+        return reuseDocument;
+    }
+
+    public StAXStream2DOM reuseDocument(boolean reuseDocument) {
+        this.reuseDocument = reuseDocument;
+        if (!reuseDocument)
+            document = null;
+
+        return this;
+    }
+
+    public Element createElement(XMLStreamReader reader) throws XMLStreamException {
+        if (reader.getEventType() != XMLStreamConstants.START_ELEMENT)
+            throw new IllegalStateException("Illegal to call createElement when event is not START_ELEMENT.");
+
+        Document document = getDocument();
+        Element root = createElement(reader, document);
+        if (!reuseDocument)
+            document.appendChild(root);
+
+        Node current = root;
+        int level = 1;
+        while (level > 0) {
+            switch (reader.next()) {
+                case XMLStreamConstants.START_ELEMENT:
+                    current = current.appendChild(createElement(reader, document));
+                    level++;
+                    break;
+                case XMLStreamConstants.END_ELEMENT:
+                    current = current.getParentNode();
+                    level--;
+                    break;
+                case XMLStreamConstants.CHARACTERS:
+                case XMLStreamConstants.SPACE:
+                    current.appendChild(document.createTextNode(reader.getText()));
+                    break;
+                case XMLStreamConstants.CDATA:
+                    current.appendChild(document.createCDATASection(reader.getText()));
+                    break;
+                case XMLStreamConstants.COMMENT:
+                    current.appendChild(document.createComment(reader.getText()));
+                    break;
+                case XMLStreamConstants.PROCESSING_INSTRUCTION:
+                    current.appendChild(document.createProcessingInstruction(reader.getPITarget(), reader.getPIData()));
+                    break;
+                case XMLStreamConstants.ENTITY_REFERENCE:
+                    current.appendChild(document.createEntityReference(reader.getLocalName()));
+                    break;
+            }
+        }
+
+        return root;
+    }
+
+    private Document getDocument() {
+        if (!reuseDocument)
+            return builder.newDocument();
+        else if (document == null)
+            document = builder.newDocument();
+
+        return document;
+    }
+
+    private Element createElement(XMLStreamReader reader, Document document) {
+        Element element = document.createElementNS(getNamespaceURI(reader.getNamespaceURI()),
+                getQName(reader.getPrefix(), reader.getLocalName()));
+
+        for (int i = 0; i < reader.getNamespaceCount(); i++) {
+            String prefix = reader.getNamespacePrefix(i);
+            element.setAttributeNS(XMLConstants.XMLNS_ATTRIBUTE_NS_URI,
+                    prefix != null && !prefix.isEmpty() ? XMLConstants.XMLNS_ATTRIBUTE + ":" + prefix : XMLConstants.XMLNS_ATTRIBUTE,
+                    reader.getNamespaceURI(i) != null ? reader.getNamespaceURI(i) : XMLConstants.NULL_NS_URI);
+        }
+
+        for (int i = 0; i < reader.getAttributeCount(); i++) {
+            element.setAttributeNS(getNamespaceURI(reader.getAttributeNamespace(i)),
+                    getQName(reader.getAttributePrefix(i), reader.getAttributeLocalName(i)),
+                    reader.getAttributeValue(i));
+        }
+
+        return element;
+    }
+
+    private String getNamespaceURI(String namespaceURI) {
+        return namespaceURI != null && !namespaceURI.isEmpty() ? namespaceURI : null;
+    }
+
+    private String getQName(String prefix, String localName) {
+        return prefix != null && !prefix.isEmpty() ? prefix + ":" + localName : localName;
+    }
+}
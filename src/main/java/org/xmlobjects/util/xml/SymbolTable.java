@@ -0,0 +1,121 @@
+/*
+ * xml-objects - A simple and lightweight XML-to-object mapping library
+ * https://github.com/xmlobjects
+ *
+ * Copyright 2019-2020 Claus Nagel <claus.nagel@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.xmlobjects.util.xml;
+
+import javax.xml.XMLConstants;
+import javax.xml.namespace.QName;
+import java.util.Objects;
+
+public class SymbolTable {
+    private static final int INITIAL_CAPACITY = 64;
+    private static final int MAX_SIZE = 4096;
+
+    private Symbol[] symbols = new Symbol[INITIAL_CAPACITY];
+    private int size;
+
+    public Symbol get(String namespaceURI, String localName, String prefix) {
+        if (namespaceURI == null)
+            namespaceURI = XMLConstants.NULL_NS_URI;
+        if (prefix == null)
+            prefix = XMLConstants.DEFAULT_NS_PREFIX;
+
+        int hash = namespaceURI.hashCode() * 31 + localName.hashCode();
+        int index = hash & (symbols.length - 1);
+
+        for (Symbol symbol = symbols[index]; symbol != null; symbol = symbol.next) {
+            if (symbol.hash == hash
+                    && equals(symbol.name.getLocalPart(), localName)
+                    && equals(symbol.name.getNamespaceURI(), namespaceURI)
+                    && equals(symbol.name.getPrefix(), prefix))
+                return symbol;
+        }
+
+        if (size == MAX_SIZE || size >= symbols.length * 3 / 4) {
+            if (size == MAX_SIZE)
+                clear();
+            else
+                rehash();
+
+            index = hash & (symbols.length - 1);
+        }
+
+        Symbol symbol = new Symbol(new QName(namespaceURI, localName, prefix), hash, symbols[index]);
+        symbols[index] = symbol;
+        size++;
+
+        return symbol;
+    }
+
+    public void clear() {
+        symbols = new Symbol[INITIAL_CAPACITY];
+        size = 0;
+    }
+
+    private boolean equals(String a, String b) {
+        return a == b || a.equals(b);
+    }
+
+    private void rehash() {
+        Symbol[] symbols = new Symbol[this.symbols.length * 2];
+        for (Symbol symbol : this.symbols) {
+            while (symbol != null) {
+                Symbol next = symbol.next;
+                int index = symbol.hash & (symbols.length - 1);
+                symbol.next = symbols[index];
+                symbols[index] = symbol;
+                symbol = next;
+            }
+        }
+
+        this.symbols = symbols;
+    }
+
+    // the value slot caches data for the owner that set it and is invisible to any other caller
+    public static final class Symbol {
+        private final QName name;
+        private final int hash;
+        private Symbol next;
+        private Object owner;
+        private Object value;
+
+        private Symbol(QName name, int hash, Symbol next) {
+            this.name = name;
+            this.hash = hash;
+            this.next = next;
+        }
+
+        public QName getName() {
+            return name;
+        }
+
+        public boolean hasValue(Object owner) {
+            return owner != null && owner == this.owner;
+        }
+
+        public Object getValue(Object owner) {
+            return hasValue(owner) ? value : null;
+        }
+
+        public void setValue(Object owner, Object value) {
+            this.owner = Objects.requireNonNull(owner, "The owner must not be null.");
+            this.value = value;
+        }
+    }
+}
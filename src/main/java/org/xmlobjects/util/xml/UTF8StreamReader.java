@@ -0,0 +1,1375 @@
+/*
+ * xml-objects - A simple and lightweight XML-to-object mapping library
+ * https://github.com/xmlobjects
+ *
+ * Copyright 2019-2020 Claus Nagel <claus.nagel@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.xmlobjects.util.xml;
+
+import javax.xml.XMLConstants;
+import javax.xml.namespace.NamespaceContext;
+import javax.xml.namespace.QName;
+import javax.xml.stream.Location;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+public class UTF8StreamReader implements XMLStreamReader {
+    private static final int BUFFER_SIZE = 65536;
+    private static final int PROLOG_SIZE = 256;
+    private static final int INITIAL_NAME_CAPACITY = 256;
+    private static final int MAX_NAMES = 4096;
+
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private InputStream stream;
+    private String systemId;
+    private int position;
+    private int limit;
+    private long offset;
+    private int scanned;
+    private int lineNumber;
+    private int columnNumber;
+    private boolean carriageReturn;
+
+    private Name[] names = new Name[INITIAL_NAME_CAPACITY];
+    private int nameCount;
+    private byte[] nameBytes = new byte[64];
+
+    private Name[] elementNames = new Name[16];
+    private String[] elementURIs = new String[16];
+    private int[] namespaceStarts = new int[17];
+    private int depth;
+    private boolean hasRoot;
+    private boolean isEmptyElement;
+    private boolean popElement;
+
+    private String[] namespacePrefixes = new String[16];
+    private String[] namespaceURIs = new String[16];
+    private int namespaceCount;
+
+    private Name[] attributeNames = new Name[8];
+    private String[] attributeURIs = new String[8];
+    private String[] attributeValues = new String[8];
+    private int attributeCount;
+
+    private char[] text = new char[256];
+    private int textLength;
+    private String textValue;
+    private String piTarget;
+
+    private String version;
+    private String encoding;
+    private boolean standalone;
+    private boolean standaloneSet;
+    private int eventType = XMLStreamConstants.START_DOCUMENT;
+
+    public UTF8StreamReader(InputStream stream) throws XMLStreamException {
+        this(stream, null);
+    }
+
+    public UTF8StreamReader(InputStream stream, String systemId) throws XMLStreamException {
+        reset(stream, systemId);
+    }
+
+    public void reset(InputStream stream, String systemId) throws XMLStreamException {
+        this.stream = Objects.requireNonNull(stream, "The input stream must not be null.");
+        this.systemId = systemId;
+        position = limit = 0;
+        offset = 0;
+        scanned = 0;
+        lineNumber = 1;
+        columnNumber = 0;
+        carriageReturn = false;
+        Arrays.fill(elementNames, 0, depth, null);
+        depth = 0;
+        hasRoot = false;
+        isEmptyElement = false;
+        popElement = false;
+        namespaceCount = 0;
+        attributeCount = 0;
+        textLength = 0;
+        textValue = null;
+        piTarget = null;
+        version = null;
+        encoding = null;
+        standalone = false;
+        standaloneSet = false;
+        eventType = XMLStreamConstants.START_DOCUMENT;
+        parseProlog();
+    }
+
+    public static boolean isSupportedEncoding(String encoding) {
+        switch (encoding.toUpperCase(Locale.ROOT)) {
+            case "UTF-8":
+            case "UTF8":
+            case "US-ASCII":
+            case "ASCII":
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    public static boolean isSupported(InputStream stream) throws IOException {
+        if (!stream.markSupported())
+            throw new IOException("The input stream must support mark and reset.");
+
+        byte[] prolog = new byte[PROLOG_SIZE];
+        int length = 0;
+
+        stream.mark(prolog.length);
+        try {
+            int read;
+            while (length < prolog.length && (read = stream.read(prolog, length, prolog.length - length)) != -1)
+                length += read;
+        } finally {
+            stream.reset();
+        }
+
+        int start = length >= 3
+                && prolog[0] == (byte) 0xef
+                && prolog[1] == (byte) 0xbb
+                && prolog[2] == (byte) 0xbf ? 3 : 0;
+
+        // reject UTF-16 and UTF-32 input
+        if (length - start >= 2 && (prolog[start] == 0 || prolog[start + 1] == 0
+                || (prolog[start] == (byte) 0xfe && prolog[start + 1] == (byte) 0xff)
+                || (prolog[start] == (byte) 0xff && prolog[start + 1] == (byte) 0xfe)))
+            return false;
+
+        String declaration = new String(prolog, start, length - start, StandardCharsets.ISO_8859_1);
+        if (!declaration.startsWith("<?xml"))
+            return true;
+
+        int end = declaration.indexOf("?>");
+        int index = declaration.indexOf("encoding");
+        if (index == -1 || (end != -1 && index > end))
+            return true;
+
+        index = declaration.indexOf('=', index);
+        if (index == -1)
+            return false;
+
+        while (++index < declaration.length() && isWhiteSpace(declaration.charAt(index))) ;
+        if (index == declaration.length())
+            return false;
+
+        char quote = declaration.charAt(index);
+        int close = declaration.indexOf(quote, index + 1);
+        return (quote == '"' || quote == '\'')
+                && close != -1
+                && isSupportedEncoding(declaration.substring(index + 1, close));
+    }
+
+    @Override
+    public Object getProperty(String name) throws IllegalArgumentException {
+        if (name == null)
+            throw new IllegalArgumentException("Property name must not be null.");
+
+        return null;
+    }
+
+    @Override
+    public int next() throws XMLStreamException {
+        if (eventType == XMLStreamConstants.END_DOCUMENT)
+            throw new NoSuchElementException("There are no more parsing events.");
+
+        if (popElement) {
+            namespaceCount = namespaceStarts[depth];
+            elementNames[--depth] = null;
+            popElement = false;
+        }
+
+        if (isEmptyElement) {
+            isEmptyElement = false;
+            popElement = true;
+            return eventType = XMLStreamConstants.END_ELEMENT;
+        }
+
+        textValue = null;
+        while (true) {
+            int b = peek();
+            if (b == -1) {
+                if (depth > 0)
+                    throw new XMLStreamException("Unexpected end of document: the element " + elementNames[depth - 1].qName + " is not closed.", getLocation());
+                if (!hasRoot)
+                    throw new XMLStreamException("Premature end of document: the document has no root element.", getLocation());
+
+                return eventType = XMLStreamConstants.END_DOCUMENT;
+            } else if (b == '<') {
+                position++;
+                switch (read()) {
+                    case '/':
+                        parseEndTag();
+                        return eventType = XMLStreamConstants.END_ELEMENT;
+                    case '?':
+                        parseProcessingInstruction();
+                        return eventType = XMLStreamConstants.PROCESSING_INSTRUCTION;
+                    case '!':
+                        if (skip("--")) {
+                            parseComment();
+                            return eventType = XMLStreamConstants.COMMENT;
+                        } else if (skip("[CDATA[")) {
+                            if (depth == 0)
+                                throw new XMLStreamException("CDATA sections are not allowed outside the root element.", getLocation());
+
+                            parseCDATA();
+                            return eventType = XMLStreamConstants.CDATA;
+                        } else if (skip("DOCTYPE")) {
+                            parseDTD();
+                            return eventType = XMLStreamConstants.DTD;
+                        } else
+                            throw new XMLStreamException("Invalid markup declaration.", getLocation());
+                    case -1:
+                        throw new XMLStreamException("Unexpected end of document.", getLocation());
+                    default:
+                        position--;
+                        parseStartTag();
+                        return eventType = XMLStreamConstants.START_ELEMENT;
+                }
+            } else if (depth > 0) {
+                parseText();
+                return eventType = XMLStreamConstants.CHARACTERS;
+            } else if (isWhiteSpace((char) b))
+                position++;
+            else
+                throw new XMLStreamException("Content is not allowed outside the root element.", getLocation());
+        }
+    }
+
+    private void parseProlog() throws XMLStreamException {
+        if (ensure(3) && buffer[0] == (byte) 0xef && buffer[1] == (byte) 0xbb && buffer[2] == (byte) 0xbf)
+            position = scanned = 3;
+
+        if (!ensure(6) || !startsWith("<?xml") || !isWhiteSpace((char) buffer[position + 5]))
+            return;
+
+        position += 5;
+        while (true) {
+            skipWhiteSpace();
+            if (skip("?>"))
+                break;
+
+            Name name = parseName();
+            skipWhiteSpace();
+            expect('=');
+            skipWhiteSpace();
+            int quote = read();
+            if (quote != '"' && quote != '\'')
+                throw new XMLStreamException("Invalid XML declaration.", getLocation());
+
+            String value = parseAttributeValue(quote);
+            switch (name.qName) {
+                case "version":
+                    version = value;
+                    break;
+                case "encoding":
+                    if (!isSupportedEncoding(value))
+                        throw new XMLStreamException("Unsupported encoding " + value + ".", getLocation());
+
+                    encoding = value;
+                    break;
+                case "standalone":
+                    standalone = "yes".equals(value);
+                    standaloneSet = true;
+                    break;
+                default:
+                    throw new XMLStreamException("Invalid XML declaration.", getLocation());
+            }
+        }
+    }
+
+    private void parseStartTag() throws XMLStreamException {
+        if (depth == 0 && hasRoot)
+            throw new XMLStreamException("The document must not have more than one root element.", getLocation());
+
+        Name name = parseName();
+        int namespaceStart = namespaceCount;
+        attributeCount = 0;
+
+        while (true) {
+            skipWhiteSpace();
+            int b = read();
+            if (b == '>')
+                break;
+            else if (b == '/') {
+                expect('>');
+                isEmptyElement = true;
+                break;
+            } else if (b == -1)
+                throw new XMLStreamException("Unexpected end of document.", getLocation());
+
+            position--;
+            Name attribute = parseName();
+            skipWhiteSpace();
+            expect('=');
+            skipWhiteSpace();
+            int quote = read();
+            if (quote != '"' && quote != '\'')
+                throw new XMLStreamException("Attribute values must be quoted.", getLocation());
+
+            String value = parseAttributeValue(quote);
+            if (attribute.qName == XMLConstants.XMLNS_ATTRIBUTE)
+                addNamespace(XMLConstants.DEFAULT_NS_PREFIX, value.intern(), namespaceStart);
+            else if (attribute.prefix == XMLConstants.XMLNS_ATTRIBUTE)
+                addNamespace(attribute.localName, value.intern(), namespaceStart);
+            else
+                addAttribute(attribute, value);
+        }
+
+        if (depth == elementNames.length) {
+            elementNames = Arrays.copyOf(elementNames, depth * 2);
+            elementURIs = Arrays.copyOf(elementURIs, depth * 2);
+            namespaceStarts = Arrays.copyOf(namespaceStarts, depth * 2 + 1);
+        }
+
+        String namespaceURI = resolve(name);
+        elementNames[depth] = name;
+        elementURIs[depth] = namespaceURI;
+        namespaceStarts[++depth] = namespaceStart;
+        hasRoot = true;
+
+        for (int i = 0; i < attributeCount; i++) {
+            Name attribute = attributeNames[i];
+            String attributeURI = attribute.prefix.isEmpty() ? null : resolve(attribute);
+            for (int j = 0; j < i; j++) {
+                if (attributeNames[j].localName == attribute.localName && Objects.equals(attributeURIs[j], attributeURI))
+                    throw new XMLStreamException("The attribute " + attribute.qName + " of the element " + name.qName + " is specified more than once.", getLocation());
+            }
+
+            attributeURIs[i] = attributeURI;
+        }
+    }
+
+    private void parseEndTag() throws XMLStreamException {
+        Name name = parseName();
+        skipWhiteSpace();
+        expect('>');
+
+        if (depth == 0)
+            throw new XMLStreamException("Unexpected end tag " + name.qName + ".", getLocation());
+
+        Name current = elementNames[depth - 1];
+        if (name != current && !name.qName.equals(current.qName))
+            throw new XMLStreamException("The end tag " + name.qName + " does not match the start tag " + current.qName + ".", getLocation());
+
+        popElement = true;
+    }
+
+    private void parseText() throws XMLStreamException {
+        textLength = 0;
+        while (position < limit || ensure(1)) {
+            byte[] buffer = this.buffer;
+            int start = position;
+            int end = limit;
+            char[] text = ensureText(end - start);
+            int length = textLength;
+
+            // copy plain ASCII characters directly from the byte buffer
+            int i = start;
+            byte b = 0;
+            while (i < end) {
+                b = buffer[i];
+                if (b < 0x20 ? b != '\n' && b != '\t' : b == '<' || b == '&' || b == ']')
+                    break;
+
+                text[length++] = (char) b;
+                i++;
+            }
+
+            position = i;
+            textLength = length;
+
+            if (i < end) {
+                if (b == '<')
+                    return;
+
+                position++;
+                if (b == '&')
+                    parseReference();
+                else if (b == '\r') {
+                    append('\n');
+                    if (peek() == '\n')
+                        position++;
+                } else if (b == ']') {
+                    if (ensure(2) && buffer[position] == ']' && buffer[position + 1] == '>')
+                        throw new XMLStreamException("The character sequence ]]> must not appear in content.", getLocation());
+
+                    append(']');
+                } else if (b >= 0) {
+                    checkCharacter(b);
+                    append((char) b);
+                } else
+                    appendUTF8(b & 0xff);
+            }
+        }
+    }
+
+    private String parseAttributeValue(int quote) throws XMLStreamException {
+        textLength = 0;
+        while (true) {
+            int b = read();
+            if (b == quote)
+                break;
+
+            switch (b) {
+                case -1:
+                    throw new XMLStreamException("Unexpected end of document in attribute value.", getLocation());
+                case '<':
+                    throw new XMLStreamException("Attribute values must not contain '<'.", getLocation());
+                case '&':
+                    parseReference();
+                    break;
+                case '\r':
+                    if (peek() == '\n')
+                        position++;
+
+                    append(' ');
+                    break;
+                case '\n':
+                case '\t':
+                    append(' ');
+                    break;
+                default:
+                    if (b < 0x80) {
+                        checkCharacter(b);
+                        append((char) b);
+                    } else
+                        appendUTF8(b);
+            }
+        }
+
+        return new String(text, 0, textLength);
+    }
+
+    private void parseReference() throws XMLStreamException {
+        int b = read();
+        if (b == '#') {
+            int radix = 10;
+            if ((b = read()) == 'x') {
+                radix = 16;
+                b = read();
+            }
+
+            int codePoint = 0;
+            int digits = 0;
+            for (; b != ';'; b = read(), digits++) {
+                int digit = b != -1 ? Character.digit(b, radix) : -1;
+                if (digit == -1 || (codePoint = codePoint * radix + digit) > Character.MAX_CODE_POINT)
+                    throw new XMLStreamException("Invalid character reference.", getLocation());
+            }
+
+            if (digits == 0)
+                throw new XMLStreamException("Invalid character reference.", getLocation());
+
+            appendCodePoint(codePoint);
+        } else {
+            StringBuilder name = new StringBuilder();
+            for (; b != ';'; b = read()) {
+                if (b == -1 || isWhiteSpace((char) b) || b == '<' || name.length() > 32)
+                    throw new XMLStreamException("Invalid entity reference.", getLocation());
+
+                name.append((char) b);
+            }
+
+            switch (name.toString()) {
+                case "lt":
+                    append('<');
+                    break;
+                case "gt":
+                    append('>');
+                    break;
+                case "amp":
+                    append('&');
+                    break;
+                case "apos":
+                    append('\'');
+                    break;
+                case "quot":
+                    append('"');
+                    break;
+                default:
+                    throw new XMLStreamException("The entity " + name + " was referenced, but not declared.", getLocation());
+            }
+        }
+    }
+
+    private void parseComment() throws XMLStreamException {
+        parseUntil("-->", "comment");
+        for (int i = 0; i < textLength; i++) {
+            if (text[i] == '-' && (i + 1 == textLength || text[i + 1] == '-'))
+                throw new XMLStreamException("The string -- is not permitted within comments.", getLocation());
+        }
+    }
+
+    private void parseCDATA() throws XMLStreamException {
+        parseUntil("]]>", "CDATA section");
+    }
+
+    private void parseProcessingInstruction() throws XMLStreamException {
+        piTarget = parseName().qName;
+        if (piTarget.equalsIgnoreCase("xml"))
+            throw new XMLStreamException("The processing instruction target " + piTarget + " is reserved.", getLocation());
+
+        skipWhiteSpace();
+        parseUntil("?>", "processing instruction");
+    }
+
+    private void parseDTD() throws XMLStreamException {
+        textLength = 0;
+        int brackets = 0;
+        int quote = 0;
+        while (true) {
+            int b = read();
+            if (b == -1)
+                throw new XMLStreamException("Unexpected end of document in DOCTYPE declaration.", getLocation());
+            else if (quote != 0) {
+                if (b == quote)
+                    quote = 0;
+            } else if (b == '"' || b == '\'')
+                quote = b;
+            else if (b == '[')
+                brackets++;
+            else if (b == ']')
+                brackets--;
+            else if (b == '>' && brackets == 0)
+                break;
+
+            if (b < 0x80)
+                append((char) b);
+            else
+                appendUTF8(b);
+        }
+    }
+
+    private void parseUntil(String delimiter, String construct) throws XMLStreamException {
+        textLength = 0;
+        int first = delimiter.charAt(0);
+        String rest = delimiter.substring(1);
+        while (true) {
+            int b = read();
+            if (b == -1)
+                throw new XMLStreamException("Unexpected end of document in " + construct + ".", getLocation());
+            else if (b == first && skip(rest))
+                break;
+            else if (b == '\r') {
+                append('\n');
+                if (peek() == '\n')
+                    position++;
+            } else if (b < 0x80) {
+                checkCharacter(b);
+                append((char) b);
+            } else
+                appendUTF8(b);
+        }
+    }
+
+    private Name parseName() throws XMLStreamException {
+        int length = 0;
+        int hash = 0;
+        while (true) {
+            if (position == limit && !ensure(1))
+                break;
+
+            byte b = buffer[position];
+            if (b == ' ' || b == '\n' || b == '\t' || b == '\r' || b == '=' || b == '/' || b == '>' || b == '?')
+                break;
+
+            if (length == nameBytes.length)
+                nameBytes = Arrays.copyOf(nameBytes, length * 2);
+
+            nameBytes[length++] = b;
+            hash = 31 * hash + b;
+            position++;
+        }
+
+        if (length == 0)
+            throw new XMLStreamException("Expected a name.", getLocation());
+
+        int index = hash & (names.length - 1);
+        for (Name name = names[index]; name != null; name = name.next) {
+            if (name.hash == hash && equals(name.bytes, nameBytes, length))
+                return name;
+        }
+
+        if (nameCount == MAX_NAMES) {
+            names = new Name[INITIAL_NAME_CAPACITY];
+            nameCount = 0;
+            index = hash & (names.length - 1);
+        } else if (nameCount >= names.length * 3 / 4) {
+            rehash();
+            index = hash & (names.length - 1);
+        }
+
+        Name name = new Name(Arrays.copyOf(nameBytes, length), hash, names[index]);
+        if (!isValidName(name))
+            throw new XMLStreamException("The name " + name.qName + " is not a valid qualified name.", getLocation());
+
+        names[index] = name;
+        nameCount++;
+        return name;
+    }
+
+    private boolean isValidName(Name name) {
+        return (name.prefix.isEmpty() ? name.qName == name.localName : isNCName(name.prefix))
+                && isNCName(name.localName)
+                && Arrays.equals(name.qName.getBytes(StandardCharsets.UTF_8), name.bytes);
+    }
+
+    private static boolean isNCName(String name) {
+        if (name.isEmpty())
+            return false;
+
+        for (int i = 0; i < name.length(); ) {
+            int codePoint = name.codePointAt(i);
+            if (i == 0 ? !isNameStartChar(codePoint) : !isNameChar(codePoint))
+                return false;
+
+            i += Character.charCount(codePoint);
+        }
+
+        return true;
+    }
+
+    private static boolean isNameStartChar(int ch) {
+        return (ch >= 'a' && ch <= 'z')
+                || (ch >= 'A' && ch <= 'Z')
+                || ch == '_'
+                || (ch >= 0xc0 && ch <= 0xd6)
+                || (ch >= 0xd8 && ch <= 0xf6)
+                || (ch >= 0xf8 && ch <= 0x2ff)
+                || (ch >= 0x370 && ch <= 0x37d)
+                || (ch >= 0x37f && ch <= 0x1fff)
+                || (ch >= 0x200c && ch <= 0x200d)
+                || (ch >= 0x2070 && ch <= 0x218f)
+                || (ch >= 0x2c00 && ch <= 0x2fef)
+                || (ch >= 0x3001 && ch <= 0xd7ff)
+                || (ch >= 0xf900 && ch <= 0xfdcf)
+                || (ch >= 0xfdf0 && ch <= 0xfffd)
+                || (ch >= 0x10000 && ch <= 0xeffff);
+    }
+
+    private static boolean isNameChar(int ch) {
+        return isNameStartChar(ch)
+                || (ch >= '0' && ch <= '9')
+                || ch == '-'
+                || ch == '.'
+                || ch == 0xb7
+                || (ch >= 0x300 && ch <= 0x36f)
+                || (ch >= 0x203f && ch <= 0x2040);
+    }
+
+    private boolean equals(byte[] a, byte[] b, int length) {
+        if (a.length != length)
+            return false;
+
+        for (int i = 0; i < length; i++) {
+            if (a[i] != b[i])
+                return false;
+        }
+
+        return true;
+    }
+
+    private void rehash() {
+        Name[] names = new Name[this.names.length * 2];
+        for (Name name : this.names) {
+            while (name != null) {
+                Name next = name.next;
+                int index = name.hash & (names.length - 1);
+                name.next = names[index];
+                names[index] = name;
+                name = next;
+            }
+        }
+
+        this.names = names;
+    }
+
+    private void addNamespace(String prefix, String namespaceURI, int namespaceStart) throws XMLStreamException {
+        if (!prefix.isEmpty() && namespaceURI.isEmpty())
+            throw new XMLStreamException("The prefix " + prefix + " must not be bound to an empty namespace URI.", getLocation());
+
+        for (int i = namespaceStart; i < namespaceCount; i++) {
+            if (namespacePrefixes[i].equals(prefix))
+                throw new XMLStreamException("The namespace prefix " + prefix + " is declared more than once.", getLocation());
+        }
+
+        if (namespaceCount == namespacePrefixes.length) {
+            namespacePrefixes = Arrays.copyOf(namespacePrefixes, namespaceCount * 2);
+            namespaceURIs = Arrays.copyOf(namespaceURIs, namespaceCount * 2);
+        }
+
+        namespacePrefixes[namespaceCount] = prefix;
+        namespaceURIs[namespaceCount++] = namespaceURI;
+    }
+
+    private void addAttribute(Name name, String value) {
+        if (attributeCount == attributeNames.length) {
+            attributeNames = Arrays.copyOf(attributeNames, attributeCount * 2);
+            attributeURIs = Arrays.copyOf(attributeURIs, attributeCount * 2);
+            attributeValues = Arrays.copyOf(attributeValues, attributeCount * 2);
+        }
+
+        attributeNames[attributeCount] = name;
+        attributeValues[attributeCount++] = value;
+    }
+
+    private String resolve(Name name) throws XMLStreamException {
+        String namespaceURI = lookup(name.prefix);
+        if (namespaceURI == null && !name.prefix.isEmpty())
+            throw new XMLStreamException("The prefix " + name.prefix + " of " + name.qName + " is not bound.", getLocation());
+
+        return namespaceURI;
+    }
+
+    private String lookup(String prefix) {
+        for (int i = namespaceCount - 1; i >= 0; i--) {
+            if (namespacePrefixes[i].equals(prefix))
+                return !namespaceURIs[i].isEmpty() ? namespaceURIs[i] : null;
+        }
+
+        switch (prefix) {
+            case XMLConstants.XML_NS_PREFIX:
+                return XMLConstants.XML_NS_URI;
+            case XMLConstants.XMLNS_ATTRIBUTE:
+                return XMLConstants.XMLNS_ATTRIBUTE_NS_URI;
+            default:
+                return null;
+        }
+    }
+
+    private char[] ensureText(int length) {
+        if (textLength + length > text.length)
+            text = Arrays.copyOf(text, Math.max(text.length * 2, textLength + length));
+
+        return text;
+    }
+
+    private void append(char ch) {
+        if (textLength == text.length)
+            text = Arrays.copyOf(text, text.length * 2);
+
+        text[textLength++] = ch;
+    }
+
+    private void checkCharacter(int ch) throws XMLStreamException {
+        if (ch < 0x20 && ch != '\t' && ch != '\n' && ch != '\r')
+            throw new XMLStreamException("Invalid character 0x" + Integer.toHexString(ch) + ".", getLocation());
+    }
+
+    private void appendCodePoint(int codePoint) throws XMLStreamException {
+        checkCharacter(codePoint);
+        if ((codePoint >= Character.MIN_SURROGATE && codePoint <= Character.MAX_SURROGATE)
+                || codePoint == 0xfffe
+                || codePoint == 0xffff)
+            throw new XMLStreamException("Invalid character 0x" + Integer.toHexString(codePoint) + ".", getLocation());
+
+        if (Character.isBmpCodePoint(codePoint))
+            append((char) codePoint);
+        else {
+            append(Character.highSurrogate(codePoint));
+            append(Character.lowSurrogate(codePoint));
+        }
+    }
+
+    private void appendUTF8(int b) throws XMLStreamException {
+        int codePoint;
+        int continuation;
+        if (b >= 0xc2 && b <= 0xdf) {
+            codePoint = b & 0x1f;
+            continuation = 1;
+        } else if (b >= 0xe0 && b <= 0xef) {
+            codePoint = b & 0x0f;
+            continuation = 2;
+        } else if (b >= 0xf0 && b <= 0xf4) {
+            codePoint = b & 0x07;
+            continuation = 3;
+        } else
+            throw new XMLStreamException("Invalid UTF-8 byte sequence.", getLocation());
+
+        while (continuation-- > 0) {
+            int next = read();
+            if ((next & 0xc0) != 0x80)
+                throw new XMLStreamException("Invalid UTF-8 byte sequence.", getLocation());
+
+            codePoint = (codePoint << 6) | (next & 0x3f);
+        }
+
+        appendCodePoint(codePoint);
+    }
+
+    private void skipWhiteSpace() throws XMLStreamException {
+        int b;
+        while ((b = peek()) != -1 && isWhiteSpace((char) b))
+            position++;
+    }
+
+    private void expect(char ch) throws XMLStreamException {
+        if (read() != ch)
+            throw new XMLStreamException("Expected '" + ch + "'.", getLocation());
+    }
+
+    private boolean skip(String s) throws XMLStreamException {
+        if (ensure(s.length()) && startsWith(s)) {
+            position += s.length();
+            return true;
+        }
+
+        return false;
+    }
+
+    private boolean startsWith(String s) {
+        for (int i = 0; i < s.length(); i++) {
+            if (buffer[position + i] != s.charAt(i))
+                return false;
+        }
+
+        return true;
+    }
+
+    private int read() throws XMLStreamException {
+        return position < limit || ensure(1) ? buffer[position++] & 0xff : -1;
+    }
+
+    private int peek() throws XMLStreamException {
+        return position < limit || ensure(1) ? buffer[position] & 0xff : -1;
+    }
+
+    private boolean ensure(int length) throws XMLStreamException {
+        if (limit - position >= length)
+            return true;
+
+        if (position > 0) {
+            updateLocation();
+            scanned = 0;
+            System.arraycopy(buffer, position, buffer, 0, limit - position);
+            offset += position;
+            limit -= position;
+            position = 0;
+        }
+
+        try {
+            while (limit < length) {
+                int read = stream.read(buffer, limit, buffer.length - limit);
+                if (read == -1)
+                    return false;
+
+                limit += read;
+            }
+        } catch (IOException e) {
+            throw new XMLStreamException("Failed to read from the input stream.", getLocation(), e);
+        }
+
+        return true;
+    }
+
+    private void updateLocation() {
+        for (int i = scanned; i < position; i++) {
+            byte b = buffer[i];
+            if (b == '\r' || (b == '\n' && !carriageReturn)) {
+                lineNumber++;
+                columnNumber = 0;
+            } else if (b != '\n' && (b & 0xc0) != 0x80)
+                columnNumber++;
+
+            carriageReturn = b == '\r';
+        }
+
+        scanned = position;
+    }
+
+    private static boolean isWhiteSpace(char ch) {
+        return ch == ' ' || ch == '\n' || ch == '\t' || ch == '\r';
+    }
+
+    @Override
+    public void require(int type, String namespaceURI, String localName) throws XMLStreamException {
+        if (type != eventType)
+            throw new XMLStreamException("The specified event type " + type + " does not match the current parser event.");
+
+        if (namespaceURI != null && !namespaceURI.equals(getNamespaceURI()))
+            throw new XMLStreamException("The specified namespace URI " + namespaceURI + " does not match the current namespace URI.");
+
+        if (localName != null && !localName.equals(getLocalName()))
+            throw new XMLStreamException("The local name " + localName + " does not match the current local name.");
+    }
+
+    @Override
+    public String getElementText() throws XMLStreamException {
+        if (eventType != XMLStreamConstants.START_ELEMENT)
+            throw new XMLStreamException("Illegal to call getElementText when event is not START_ELEMENT.", getLocation());
+
+        StringBuilder content = new StringBuilder();
+        while (next() != XMLStreamConstants.END_ELEMENT) {
+            switch (eventType) {
+                case XMLStreamConstants.CHARACTERS:
+                case XMLStreamConstants.CDATA:
+                    content.append(text, 0, textLength);
+                    break;
+                case XMLStreamConstants.COMMENT:
+                case XMLStreamConstants.PROCESSING_INSTRUCTION:
+                    break;
+                default:
+                    throw new XMLStreamException("Element is not text-only.", getLocation());
+            }
+        }
+
+        return content.toString();
+    }
+
+    @Override
+    public int nextTag() throws XMLStreamException {
+        next();
+        while (((eventType == XMLStreamConstants.CHARACTERS || eventType == XMLStreamConstants.CDATA) && isWhiteSpace())
+                || eventType == XMLStreamConstants.PROCESSING_INSTRUCTION
+                || eventType == XMLStreamConstants.COMMENT)
+            next();
+
+        if (eventType != XMLStreamConstants.START_ELEMENT && eventType != XMLStreamConstants.END_ELEMENT)
+            throw new XMLStreamException("Expected START_ELEMENT or END_ELEMENT.", getLocation());
+
+        return eventType;
+    }
+
+    @Override
+    public boolean hasNext() throws XMLStreamException {
+        return eventType != XMLStreamConstants.END_DOCUMENT;
+    }
+
+    @Override
+    public void close() throws XMLStreamException {
+    }
+
+    @Override
+    public String getNamespaceURI(String prefix) {
+        if (prefix == null)
+            throw new IllegalArgumentException("Prefix must not be null.");
+
+        return lookup(prefix);
+    }
+
+    @Override
+    public boolean isStartElement() {
+        return eventType == XMLStreamConstants.START_ELEMENT;
+    }
+
+    @Override
+    public boolean isEndElement() {
+        return eventType == XMLStreamConstants.END_ELEMENT;
+    }
+
+    @Override
+    public boolean isCharacters() {
+        return eventType == XMLStreamConstants.CHARACTERS;
+    }
+
+    @Override
+    public boolean isWhiteSpace() {
+        if (eventType == XMLStreamConstants.CHARACTERS
+                || eventType == XMLStreamConstants.CDATA
+                || eventType == XMLStreamConstants.SPACE) {
+            for (int i = 0; i < textLength; i++) {
+                if (!isWhiteSpace(text[i]))
+                    return false;
+            }
+
+            return true;
+        }
+
+        return false;
+    }
+
+    @Override
+    public String getAttributeValue(String namespaceURI, String localName) {
+        if (eventType != XMLStreamConstants.START_ELEMENT)
+            throw new IllegalStateException("Illegal to call getAttributeValue when event is not START_ELEMENT.");
+
+        for (int i = 0; i < attributeCount; i++) {
+            if (attributeNames[i].localName.equals(localName)
+                    && (namespaceURI == null || namespaceURI.equals(attributeURIs[i] != null ? attributeURIs[i] : XMLConstants.NULL_NS_URI)))
+                return attributeValues[i];
+        }
+
+        return null;
+    }
+
+    @Override
+    public int getAttributeCount() {
+        if (eventType != XMLStreamConstants.START_ELEMENT && eventType != XMLStreamConstants.ATTRIBUTE)
+            throw new IllegalStateException("Illegal to call getAttributeCount when event is neither START_ELEMENT nor ATTRIBUTE.");
+
+        return attributeCount;
+    }
+
+    @Override
+    public QName getAttributeName(int index) {
+        if (eventType != XMLStreamConstants.START_ELEMENT && eventType != XMLStreamConstants.ATTRIBUTE)
+            throw new IllegalStateException("Illegal to call getAttributeName when event is neither START_ELEMENT nor ATTRIBUTE.");
+
+        Name name = getAttribute(index);
+        return new QName(attributeURIs[index] != null ? attributeURIs[index] : XMLConstants.NULL_NS_URI, name.localName, name.prefix);
+    }
+
+    @Override
+    public String getAttributeNamespace(int index) {
+        if (eventType != XMLStreamConstants.START_ELEMENT && eventType != XMLStreamConstants.ATTRIBUTE)
+            throw new IllegalStateException("Illegal to call getAttributeNamespace when event is neither START_ELEMENT nor ATTRIBUTE.");
+
+        getAttribute(index);
+        return attributeURIs[index];
+    }
+
+    @Override
+    public String getAttributeLocalName(int index) {
+        if (eventType != XMLStreamConstants.START_ELEMENT && eventType != XMLStreamConstants.ATTRIBUTE)
+            throw new IllegalStateException("Illegal to call getAttributeLocalName when event is neither START_ELEMENT nor ATTRIBUTE.");
+
+        return getAttribute(index).localName;
+    }
+
+    @Override
+    public String getAttributePrefix(int index) {
+        if (eventType != XMLStreamConstants.START_ELEMENT && eventType != XMLStreamConstants.ATTRIBUTE)
+            throw new IllegalStateException("Illegal to call getAttributePrefix when event is neither START_ELEMENT nor ATTRIBUTE.");
+
+        return getAttribute(index).prefix;
+    }
+
+    @Override
+    public String getAttributeType(int index) {
+        if (eventType != XMLStreamConstants.START_ELEMENT && eventType != XMLStreamConstants.ATTRIBUTE)
+            throw new IllegalStateException("Illegal to call getAttributeType when event is neither START_ELEMENT nor ATTRIBUTE.");
+
+        getAttribute(index);
+        return "CDATA";
+    }
+
+    @Override
+    public String getAttributeValue(int index) {
+        if (eventType != XMLStreamConstants.START_ELEMENT && eventType != XMLStreamConstants.ATTRIBUTE)
+            throw new IllegalStateException("Illegal to call getAttributeValue when event is neither START_ELEMENT nor ATTRIBUTE.");
+
+        getAttribute(index);
+        return attributeValues[index];
+    }
+
+    @Override
+    public boolean isAttributeSpecified(int index) {
+        if (eventType != XMLStreamConstants.START_ELEMENT && eventType != XMLStreamConstants.ATTRIBUTE)
+            throw new IllegalStateException("Illegal to call isAttributeSpecified when event is neither START_ELEMENT nor ATTRIBUTE.");
+
+        getAttribute(index);
+        return true;
+    }
+
+    private Name getAttribute(int index) {
+        if (index < 0 || index >= attributeCount)
+            throw new IndexOutOfBoundsException("Attribute index " + index + " is out of bounds.");
+
+        return attributeNames[index];
+    }
+
+    @Override
+    public int getNamespaceCount() {
+        if (eventType != XMLStreamConstants.START_ELEMENT && eventType != XMLStreamConstants.END_ELEMENT)
+            throw new IllegalStateException("Illegal to call getNamespaceCount when event is neither START_ELEMENT nor END_ELEMENT.");
+
+        return namespaceCount - namespaceStarts[depth];
+    }
+
+    @Override
+    public String getNamespacePrefix(int index) {
+        if (eventType != XMLStreamConstants.START_ELEMENT && eventType != XMLStreamConstants.END_ELEMENT)
+            throw new IllegalStateException("Illegal to call getNamespacePrefix when event is neither START_ELEMENT nor END_ELEMENT.");
+
+        String prefix = namespacePrefixes[getNamespace(index)];
+        return !prefix.isEmpty() ? prefix : null;
+    }
+
+    @Override
+    public String getNamespaceURI(int index) {
+        if (eventType != XMLStreamConstants.START_ELEMENT && eventType != XMLStreamConstants.END_ELEMENT)
+            throw new IllegalStateException("Illegal to call getNamespaceURI when event is neither START_ELEMENT nor END_ELEMENT.");
+
+        String namespaceURI = namespaceURIs[getNamespace(index)];
+        return !namespaceURI.isEmpty() ? namespaceURI : null;
+    }
+
+    private int getNamespace(int index) {
+        if (index < 0 || index >= namespaceCount - namespaceStarts[depth])
+            throw new IndexOutOfBoundsException("Namespace index " + index + " is out of bounds.");
+
+        return namespaceStarts[depth] + index;
+    }
+
+    @Override
+    public NamespaceContext getNamespaceContext() {
+        return new NamespaceContext() {
+            @Override
+            public String getNamespaceURI(String prefix) {
+                if (prefix == null)
+                    throw new IllegalArgumentException("Prefix must not be null.");
+
+                String namespaceURI = lookup(prefix);
+                return namespaceURI != null ? namespaceURI : XMLConstants.NULL_NS_URI;
+            }
+
+            @Override
+            public String getPrefix(String namespaceURI) {
+                Iterator<String> prefixes = getPrefixes(namespaceURI);
+                return prefixes.hasNext() ? prefixes.next() : null;
+            }
+
+            @Override
+            public Iterator<String> getPrefixes(String namespaceURI) {
+                if (namespaceURI == null)
+                    throw new IllegalArgumentException("Namespace URI must not be null.");
+
+                List<String> prefixes = new ArrayList<>();
+                switch (namespaceURI) {
+                    case XMLConstants.XML_NS_URI:
+                        prefixes.add(XMLConstants.XML_NS_PREFIX);
+                        break;
+                    case XMLConstants.XMLNS_ATTRIBUTE_NS_URI:
+                        prefixes.add(XMLConstants.XMLNS_ATTRIBUTE);
+                        break;
+                    default:
+                        for (int i = namespaceCount - 1; i >= 0; i--) {
+                            String prefix = namespacePrefixes[i];
+                            if (namespaceURIs[i].equals(namespaceURI)
+                                    && !prefixes.contains(prefix)
+                                    && namespaceURI.equals(lookup(prefix)))
+                                prefixes.add(prefix);
+                        }
+                }
+
+                return prefixes.iterator();
+            }
+        };
+    }
+
+    @Override
+    public int getEventType() {
+        return eventType;
+    }
+
+    @Override
+    public String getText() {
+        if (!hasText())
+            throw new IllegalStateException("Illegal to call getText when event has no text.");
+
+        if (textValue == null)
+            textValue = new String(text, 0, textLength);
+
+        return textValue;
+    }
+
+    @Override
+    public char[] getTextCharacters() {
+        if (!hasText() || eventType == XMLStreamConstants.DTD)
+            throw new IllegalStateException("Illegal to call getTextCharacters when event has no text.");
+
+        return text;
+    }
+
+    @Override
+    public int getTextCharacters(int sourceStart, char[] target, int targetStart, int length) throws XMLStreamException {
+        if (!hasText() || eventType == XMLStreamConstants.DTD)
+            throw new IllegalStateException("Illegal to call getTextCharacters when event has no text.");
+
+        if (target == null)
+            throw new NullPointerException("Target char array must not be null.");
+
+        if (targetStart < 0 || length < 0 || sourceStart < 0
+                || targetStart > target.length
+                || (targetStart + length) > target.length)
+            throw new IndexOutOfBoundsException();
+
+        int copied = Math.max(0, Math.min(textLength - sourceStart, length));
+        System.arraycopy(text, sourceStart, target, targetStart, copied);
+
+        return copied;
+    }
+
+    @Override
+    public int getTextStart() {
+        if (!hasText() || eventType == XMLStreamConstants.DTD)
+            throw new IllegalStateException("Illegal to call getTextStart when event has no text.");
+
+        return 0;
+    }
+
+    @Override
+    public int getTextLength() {
+        if (!hasText() || eventType == XMLStreamConstants.DTD)
+            throw new IllegalStateException("Illegal to call getTextLength when event has no text.");
+
+        return textLength;
+    }
+
+    @Override
+    public String getEncoding() {
+        return encoding != null ? encoding : "UTF-8";
+    }
+
+    @Override
+    public boolean hasText() {
+        return eventType == XMLStreamConstants.CHARACTERS
+                || eventType == XMLStreamConstants.CDATA
+                || eventType == XMLStreamConstants.SPACE
+                || eventType == XMLStreamConstants.COMMENT
+                || eventType == XMLStreamConstants.DTD;
+    }
+
+    @Override
+    public Location getLocation() {
+        updateLocation();
+        long characterOffset = offset + position;
+        int lineNumber = this.lineNumber;
+        int columnNumber = this.columnNumber + 1;
+        return new Location() {
+            @Override
+            public int getLineNumber() {
+                return lineNumber;
+            }
+
+            @Override
+            public int getColumnNumber() {
+                return columnNumber;
+            }
+
+            @Override
+            public int getCharacterOffset() {
+                return characterOffset <= Integer.MAX_VALUE ? (int) characterOffset : -1;
+            }
+
+            @Override
+            public String getPublicId() {
+                return null;
+            }
+
+            @Override
+            public String getSystemId() {
+                return systemId;
+            }
+        };
+    }
+
+    @Override
+    public QName getName() {
+        if (eventType != XMLStreamConstants.START_ELEMENT && eventType != XMLStreamConstants.END_ELEMENT)
+            throw new IllegalStateException("Illegal to call getName when event is neither START_ELEMENT nor END_ELEMENT.");
+
+        String namespaceURI = elementURIs[depth - 1];
+        Name name = elementNames[depth - 1];
+        return new QName(namespaceURI != null ? namespaceURI : XMLConstants.NULL_NS_URI, name.localName, name.prefix);
+    }
+
+    @Override
+    public String getLocalName() {
+        if (eventType != XMLStreamConstants.START_ELEMENT && eventType != XMLStreamConstants.END_ELEMENT)
+            throw new IllegalStateException("Illegal to call getLocalName when event is neither START_ELEMENT nor END_ELEMENT.");
+
+        return elementNames[depth - 1].localName;
+    }
+
+    @Override
+    public boolean hasName() {
+        return eventType == XMLStreamConstants.START_ELEMENT || eventType == XMLStreamConstants.END_ELEMENT;
+    }
+
+    @Override
+    public String getNamespaceURI() {
+        if (eventType == XMLStreamConstants.START_ELEMENT || eventType == XMLStreamConstants.END_ELEMENT)
+            return elementURIs[depth - 1];
+
+        return null;
+    }
+
+    @Override
+    public String getPrefix() {
+        if (eventType == XMLStreamConstants.START_ELEMENT || eventType == XMLStreamConstants.END_ELEMENT)
+            return elementNames[depth - 1].prefix;
+
+        return null;
+    }
+
+    @Override
+    public String getVersion() {
+        return version;
+    }
+
+    @Override
+    public boolean isStandalone() {
+        return standalone;
+    }
+
+    @Override
+    public boolean standaloneSet() {
+        return standaloneSet;
+    }
+
+    @Override
+    public String getCharacterEncodingScheme() {
+        return encoding;
+    }
+
+    @Override
+    public String getPITarget() {
+        return eventType == XMLStreamConstants.PROCESSING_INSTRUCTION ? piTarget : null;
+    }
+
+    @Override
+    public String getPIData() {
+        return eventType == XMLStreamConstants.PROCESSING_INSTRUCTION ? new String(text, 0, textLength) : null;
+    }
+
+    private static final class Name {
+        private final byte[] bytes;
+        private final int hash;
+        private final String qName;
+        private final String prefix;
+        private final String localName;
+        private Name next;
+
+        Name(byte[] bytes, int hash, Name next) {
+            this.bytes = bytes;
+            this.hash = hash;
+            this.next = next;
+
+            qName = new String(bytes, StandardCharsets.UTF_8).intern();
+            int index = qName.indexOf(':');
+            if (index != -1) {
+                prefix = qName.substring(0, index).intern();
+                localName = qName.substring(index + 1).intern();
+            } else {
+                prefix = XMLConstants.DEFAULT_NS_PREFIX;
+                localName = qName;
+            }
+        }
+    }
+}
@@ -21,19 +21,46 @@ package org.xmlobjects.xml;
 
 import javax.xml.XMLConstants;
 import javax.xml.namespace.QName;
+import javax.xml.stream.XMLStreamReader;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
 public class Attributes {
-    private final Map<String, Map<String, TextContent>> attributes = new HashMap<>();
+    private static final String[] NO_SLOTS = new String[0];
+    private Map<String, Map<String, TextContent>> attributes;
+    private String[] slots = NO_SLOTS;
+
+    public Attributes() {
+    }
+
+    private Attributes(String[] slots) {
+        this.slots = slots;
+    }
+
+    public static Attributes of(XMLStreamReader reader) {
+        int count = reader.getAttributeCount();
+        if (count == 0)
+            return new Attributes();
+
+        // keep namespace, local name and value as flat slots until the attributes are modified
+        String[] slots = new String[count * 3];
+        for (int i = 0, j = 0; i < count; i++) {
+            String namespaceURI = reader.getAttributeNamespace(i);
+            slots[j++] = namespaceURI != null ? namespaceURI : XMLConstants.NULL_NS_URI;
+            slots[j++] = reader.getAttributeLocalName(i);
+            slots[j++] = reader.getAttributeValue(i);
+        }
+
+        return new Attributes(slots);
+    }
 
     public boolean isEmpty() {
-        return attributes.isEmpty();
+        return attributes != null ? attributes.isEmpty() : slots.length == 0;
     }
 
     public void add(String namespaceURI, String localName, TextContent value) {
-        attributes.computeIfAbsent(namespaceURI, v -> new HashMap<>()).put(localName, value);
+        materialize().computeIfAbsent(namespaceURI, v -> new HashMap<>()).put(localName, value);
     }
 
     public void add(String namespaceURI, String localName, String value) {
@@ -57,15 +84,15 @@ public class Attributes {
     }
 
     public void addAll(String namespaceURI, Map<String, TextContent> attributes) {
-        this.attributes.computeIfAbsent(namespaceURI, v -> new HashMap<>()).putAll(attributes);
+        materialize().computeIfAbsent(namespaceURI, v -> new HashMap<>()).putAll(attributes);
     }
 
     public Map<String, Map<String, TextContent>> get() {
-        return attributes;
+        return materialize();
     }
 
     public Map<String, TextContent> get(String namespaceURI) {
-        return attributes.getOrDefault(namespaceURI, Collections.emptyMap());
+        return materialize().getOrDefault(namespaceURI, Collections.emptyMap());
     }
 
     public TextContent getValue(String localName) {
@@ -73,10 +100,32 @@ public class Attributes {
     }
 
     public TextContent getValue(String namespaceURI, String localName) {
-        return get(namespaceURI).getOrDefault(localName, TextContent.empty());
+        if (attributes == null) {
+            for (int i = 0; i < slots.length; i += 3) {
+                if (slots[i + 1].equals(localName) && slots[i].equals(namespaceURI))
+                    return TextContent.of(slots[i + 2]);
+            }
+
+            return TextContent.empty();
+        } else
+            return get(namespaceURI).getOrDefault(localName, TextContent.empty());
     }
 
     public TextContent getValue(QName name) {
         return getValue(name.getNamespaceURI(), name.getLocalPart());
     }
+
+    private Map<String, Map<String, TextContent>> materialize() {
+        if (attributes == null) {
+            attributes = new HashMap<>();
+            for (int i = 0; i < slots.length; i += 3) {
+                attributes.computeIfAbsent(slots[i], v -> new HashMap<>())
+                        .put(slots[i + 1], TextContent.of(slots[i + 2]));
+            }
+
+            slots = NO_SLOTS;
+        }
+
+        return attributes;
+    }
 }
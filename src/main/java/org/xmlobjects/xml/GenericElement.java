@@ -0,0 +1,70 @@
+/*
+ * xml-objects - A simple and lightweight XML-to-object mapping library
+ * https://github.com/xmlobjects
+ *
+ * Copyright 2019-2020 Claus Nagel <claus.nagel@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.xmlobjects.xml;
+
+import org.xml.sax.ContentHandler;
+import org.xml.sax.SAXException;
+import org.xmlobjects.util.xml.SAXBuffer;
+import org.xmlobjects.util.xml.StAXStream2DOM;
+
+import javax.xml.namespace.QName;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.util.Objects;
+
+public class GenericElement {
+    private final QName name;
+    private final SAXBuffer buffer;
+
+    private GenericElement(QName name, SAXBuffer buffer) {
+        this.name = Objects.requireNonNull(name, "The element name must not be null.");
+        this.buffer = Objects.requireNonNull(buffer, "The SAX buffer must not be null.");
+    }
+
+    public static GenericElement of(QName name, SAXBuffer buffer) {
+        buffer.trimToSize();
+        return new GenericElement(name, buffer);
+    }
+
+    public QName getName() {
+        return name;
+    }
+
+    public SAXBuffer getBuffer() {
+        return buffer;
+    }
+
+    public void send(ContentHandler handler) throws SAXException {
+        buffer.send(handler, false);
+    }
+
+    public org.w3c.dom.Element toDOMElement() {
+        try {
+            XMLStreamReader reader = buffer.toXMLStreamReader(false);
+            while (reader.next() != XMLStreamConstants.START_ELEMENT) ;
+
+            return new StAXStream2DOM().createElement(reader);
+        } catch (ParserConfigurationException | XMLStreamException e) {
+            throw new IllegalStateException("Failed to convert generic element to DOM.", e);
+        }
+    }
+}
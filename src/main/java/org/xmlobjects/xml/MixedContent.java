@@ -0,0 +1,72 @@
+/*
+ * xml-objects - A simple and lightweight XML-to-object mapping library
+ * https://github.com/xmlobjects
+ *
+ * Copyright 2019-2020 Claus Nagel <claus.nagel@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.xmlobjects.xml;
+
+import org.xml.sax.ContentHandler;
+import org.xml.sax.SAXException;
+import org.xmlobjects.util.xml.SAXBuffer;
+import org.xmlobjects.util.xml.SAXWriter;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Objects;
+
+public class MixedContent {
+    private final SAXBuffer buffer;
+    private String content;
+
+    private MixedContent(SAXBuffer buffer) {
+        this.buffer = Objects.requireNonNull(buffer, "The SAX buffer must not be null.");
+    }
+
+    public static MixedContent of(SAXBuffer buffer) {
+        buffer.trimToSize();
+        return new MixedContent(buffer);
+    }
+
+    public boolean isEmpty() {
+        return buffer.isEmpty();
+    }
+
+    public SAXBuffer getBuffer() {
+        return buffer;
+    }
+
+    public void send(ContentHandler handler) throws SAXException {
+        buffer.send(handler, false);
+    }
+
+    @Override
+    public String toString() {
+        if (content == null) {
+            try (StringWriter writer = new StringWriter()) {
+                try (SAXWriter saxWriter = new SAXWriter(writer).writeXMLDeclaration(false)) {
+                    send(saxWriter);
+                }
+
+                content = writer.toString();
+            } catch (IOException | SAXException e) {
+                throw new IllegalStateException("Failed to serialize mixed content.", e);
+            }
+        }
+
+        return content;
+    }
+}
@@ -87,6 +87,15 @@ public class Namespaces {
         return removeAll(Arrays.asList(namespaceURIs));
     }
 
+    public Namespaces clear() {
+        namespaces.clear();
+        return this;
+    }
+
+    public Set<String> get() {
+        return Collections.unmodifiableSet(namespaces);
+    }
+
     public Namespaces copy() {
         return new Namespaces(new HashSet<>(namespaces));
     }
@@ -0,0 +1,105 @@
+/*
+ * xml-objects - A simple and lightweight XML-to-object mapping library
+ * https://github.com/xmlobjects
+ *
+ * Copyright 2019-2020 Claus Nagel <claus.nagel@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.xmlobjects;
+
+import org.junit.jupiter.api.Test;
+import org.xmlobjects.test.Foo;
+import org.xmlobjects.test.FooBuilder;
+import org.xmlobjects.test.FooSerializer;
+import org.xmlobjects.test.TestObjects;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ChildContextTest {
+
+    @Test
+    public void inheritFromParent() throws Exception {
+        XMLObjects parent = TestObjects.newContext();
+        XMLObjects child = parent.newChild();
+
+        assertSame(parent, child.getParent());
+        assertSame(parent.getBuilder(TestObjects.NAMESPACE, "foo"), child.getBuilder(TestObjects.NAMESPACE, "foo"));
+        assertSame(parent.getSerializer(Foo.class, TestObjects.NAMESPACE), child.getSerializer(Foo.class, TestObjects.NAMESPACE));
+        assertTrue(child.getSerializableNamespaces().contains(TestObjects.NAMESPACE));
+
+        FooBuilder builder = new FooBuilder();
+        parent.registerBuilder(builder, TestObjects.NAMESPACE, "bar");
+        assertSame(builder, child.getBuilder(TestObjects.NAMESPACE, "bar"));
+
+        Foo foo = TestObjects.read(child, "<foo xmlns=\"urn:test\" id=\"1\"/>");
+        assertEquals("1", foo.getId());
+    }
+
+    @Test
+    public void registerInChildOnly() throws Exception {
+        XMLObjects parent = TestObjects.newContext();
+        XMLObjects child = parent.newChild();
+
+        FooBuilder builder = new FooBuilder();
+        FooSerializer serializer = new FooSerializer();
+        child.registerBuilder(builder, TestObjects.NAMESPACE, "foo")
+                .registerBuilder(builder, "urn:child", "foo")
+                .registerSerializer(serializer, Foo.class, "urn:child");
+
+        assertSame(builder, child.getBuilder(TestObjects.NAMESPACE, "foo"));
+        assertSame(builder, child.getBuilder("urn:child", "foo"));
+        assertSame(serializer, child.getSerializer(Foo.class, "urn:child"));
+        assertTrue(child.getSerializableNamespaces().contains("urn:child"));
+
+        assertNotSame(builder, parent.getBuilder(TestObjects.NAMESPACE, "foo"));
+        assertNull(parent.getBuilder("urn:child", "foo"));
+        assertNull(parent.getSerializer(Foo.class, "urn:child"));
+        assertFalse(parent.getSerializableNamespaces().contains("urn:child"));
+    }
+
+    @Test
+    public void unloadInChildMasksParent() throws Exception {
+        XMLObjects parent = TestObjects.newContext();
+        XMLObjects child = parent.newChild();
+
+        child.unloadBuilders(TestObjects.NAMESPACE);
+        child.unloadSerializers(TestObjects.NAMESPACE);
+        assertNull(child.getBuilder(TestObjects.NAMESPACE, "foo"));
+        assertNull(child.getSerializer(Foo.class, TestObjects.NAMESPACE));
+
+        parent.registerBuilder(new FooBuilder(), TestObjects.NAMESPACE, "bar");
+        assertNull(child.getBuilder(TestObjects.NAMESPACE, "bar"));
+        assertNotNull(parent.getBuilder(TestObjects.NAMESPACE, "foo"));
+        assertNotNull(parent.getSerializer(Foo.class, TestObjects.NAMESPACE));
+    }
+
+    @Test
+    public void changeParent() throws Exception {
+        XMLObjects first = TestObjects.newContext();
+        XMLObjects second = XMLObjects.newInstance();
+        XMLObjects child = first.newChild();
+        XMLObjects grandchild = child.newChild();
+
+        assertNotNull(grandchild.getBuilder(TestObjects.NAMESPACE, "foo"));
+        assertThrows(IllegalArgumentException.class, () -> first.withParent(grandchild));
+        assertThrows(IllegalArgumentException.class, () -> child.withParent(child));
+
+        child.withParent(second);
+        assertSame(second, child.getParent());
+        assertNull(child.getBuilder(TestObjects.NAMESPACE, "foo"));
+        assertNull(grandchild.getBuilder(TestObjects.NAMESPACE, "foo"));
+    }
+}
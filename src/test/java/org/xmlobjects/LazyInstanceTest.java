@@ -0,0 +1,162 @@
+/*
+ * xml-objects - A simple and lightweight XML-to-object mapping library
+ * https://github.com/xmlobjects
+ *
+ * Copyright 2019-2020 Claus Nagel <claus.nagel@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.xmlobjects;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.xmlobjects.builder.ObjectBuildException;
+import org.xmlobjects.builder.ObjectBuilder;
+import org.xmlobjects.builder.UncheckedObjectBuildException;
+import org.xmlobjects.index.XMLObjectsIndex;
+import org.xmlobjects.index.XMLObjectsIndexProcessor;
+import org.xmlobjects.serializer.ObjectSerializeException;
+import org.xmlobjects.serializer.ObjectSerializer;
+import org.xmlobjects.stream.XMLReader;
+import org.xmlobjects.stream.XMLWriter;
+import org.xmlobjects.test.Foo;
+import org.xmlobjects.test.FooBuilder;
+import org.xmlobjects.test.TestObjects;
+import org.xmlobjects.xml.Element;
+import org.xmlobjects.xml.Namespaces;
+
+import javax.xml.namespace.QName;
+import java.io.StringWriter;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Iterator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LazyInstanceTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void createInstancesOnFirstLookup() throws Exception {
+        CountingBuilder.instances = 0;
+        XMLObjects xmlObjects = newContext();
+        assertEquals(0, CountingBuilder.instances);
+
+        ObjectBuilder<?> builder = xmlObjects.getBuilder(TestObjects.NAMESPACE, "counting");
+        assertTrue(builder instanceof CountingBuilder);
+        assertSame(builder, xmlObjects.getBuilder(TestObjects.NAMESPACE, "counting"));
+        assertEquals(1, CountingBuilder.instances);
+    }
+
+    @Test
+    public void reportBuilderFailuresAsBuildExceptions() throws Exception {
+        XMLObjects xmlObjects = newContext();
+        String xml = "<failing xmlns=\"urn:test\"/>";
+
+        try (XMLReader reader = TestObjects.createReader(xmlObjects, xml)) {
+            reader.nextTag();
+            ObjectBuildException e = assertThrows(ObjectBuildException.class, () -> reader.getObject(Object.class));
+            assertTrue(e.getMessage().contains("failing"));
+        }
+
+        try (XMLReader reader = TestObjects.createReader(xmlObjects, xml)) {
+            assertThrows(ObjectBuildException.class, () -> xmlObjects.fromXML(reader, Object.class));
+        }
+
+        try (XMLReader reader = TestObjects.createReader(xmlObjects, xml)) {
+            Iterator<Object> iterator = xmlObjects.iterator(reader, Object.class);
+            UncheckedObjectBuildException e = assertThrows(UncheckedObjectBuildException.class, iterator::hasNext);
+            assertTrue(e.getCause() instanceof ObjectBuildException);
+        }
+    }
+
+    @Test
+    public void reportSerializerFailuresAsSerializeExceptions() throws Exception {
+        XMLObjects xmlObjects = newContext();
+        try (XMLWriter writer = TestObjects.createWriter(xmlObjects, new StringWriter())) {
+            assertThrows(ObjectSerializeException.class, () ->
+                    writer.writeElement(null, new Failing(), Namespaces.of(TestObjects.NAMESPACE)));
+        }
+    }
+
+    private XMLObjects newContext() throws Exception {
+        Path service = tempDir.resolve(XMLObjectsIndexProcessor.SERVICE_FILE);
+        Files.createDirectories(service.getParent());
+        Files.write(service, Collections.singletonList(TestIndex.class.getName()), StandardCharsets.UTF_8);
+
+        ClassLoader loader = new URLClassLoader(new URL[]{tempDir.toUri().toURL()}, getClass().getClassLoader());
+        return XMLObjects.newInstance(loader);
+    }
+
+    public static class TestIndex implements XMLObjectsIndex {
+
+        @Override
+        public void loadBuilders(BuilderConsumer consumer) throws XMLObjectsException {
+            consumer.accept(FooBuilder.class, null, Foo.class, TestObjects.NAMESPACE, "foo");
+            consumer.accept(CountingBuilder.class, null, Object.class, TestObjects.NAMESPACE, "counting");
+            consumer.accept(FailingBuilder.class, null, Object.class, TestObjects.NAMESPACE, "failing");
+        }
+
+        @Override
+        public void loadSerializers(SerializerConsumer consumer) throws XMLObjectsException {
+            consumer.accept(FailingSerializer.class, null, Failing.class, TestObjects.NAMESPACE);
+        }
+    }
+
+    public static class Failing {
+    }
+
+    public static class CountingBuilder implements ObjectBuilder<Object> {
+        static int instances;
+
+        public CountingBuilder() {
+            instances++;
+        }
+
+        @Override
+        public Object createObject(QName name, Object parent) {
+            return new Object();
+        }
+    }
+
+    public static class FailingBuilder implements ObjectBuilder<Object> {
+
+        public FailingBuilder() {
+            throw new IllegalArgumentException("Failed to initialize builder.");
+        }
+
+        @Override
+        public Object createObject(QName name, Object parent) {
+            return new Object();
+        }
+    }
+
+    public static class FailingSerializer implements ObjectSerializer<Failing> {
+
+        public FailingSerializer() {
+            throw new IllegalArgumentException("Failed to initialize serializer.");
+        }
+
+        @Override
+        public Element createElement(Failing object, Namespaces namespaces) {
+            return Element.of(TestObjects.NAMESPACE, "failing");
+        }
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * xml-objects - A simple and lightweight XML-to-object mapping library
+ * https://github.com/xmlobjects
+ *
+ * Copyright 2019-2020 Claus Nagel <claus.nagel@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.xmlobjects;
+
+import org.junit.jupiter.api.Test;
+import org.xmlobjects.builder.ObjectBuildException;
+import org.xmlobjects.builder.ObjectBuilder;
+import org.xmlobjects.builder.UncheckedObjectBuildException;
+import org.xmlobjects.stream.UncheckedXMLReadException;
+import org.xmlobjects.stream.XMLReader;
+import org.xmlobjects.test.Foo;
+import org.xmlobjects.test.TestObjects;
+
+import javax.xml.namespace.QName;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ObjectIteratorTest {
+    private static final String XML = "<root xmlns=\"urn:test\" xmlns:o=\"urn:other\">" +
+            "<foo id=\"1\"><foo id=\"1.1\"/></foo>" +
+            "<o:wrapper><foo id=\"2\"/><o:skipped><o:foo id=\"x\"/></o:skipped></o:wrapper>" +
+            "<foo id=\"3\"/>" +
+            "</root>";
+
+    @Test
+    public void iterateMatchingObjects() throws Exception {
+        XMLObjects xmlObjects = TestObjects.newContext();
+        try (XMLReader reader = TestObjects.createReader(xmlObjects, XML)) {
+            Iterator<Foo> iterator = xmlObjects.iterator(reader, Foo.class);
+            List<String> ids = new ArrayList<>();
+            while (iterator.hasNext()) {
+                Foo foo = iterator.next();
+                ids.add(foo.getId());
+                if ("1".equals(foo.getId()))
+                    assertEquals("1.1", ((Foo) foo.getChildren().get(0)).getId());
+            }
+
+            assertEquals(Arrays.asList("1", "2", "3"), ids);
+            assertFalse(iterator.hasNext());
+            assertThrows(NoSuchElementException.class, iterator::next);
+        }
+    }
+
+    @Test
+    public void streamMatchingObjects() throws Exception {
+        XMLObjects xmlObjects = TestObjects.newContext();
+        try (XMLReader reader = TestObjects.createReader(xmlObjects, XML)) {
+            assertEquals(Arrays.asList("1", "2", "3"), xmlObjects.stream(reader, Foo.class)
+                    .map(Foo::getId)
+                    .collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    public void iterateWithoutMatches() throws Exception {
+        XMLObjects xmlObjects = TestObjects.newContext();
+        try (XMLReader reader = TestObjects.createReader(xmlObjects, XML)) {
+            assertEquals(0, xmlObjects.stream(reader, String.class).count());
+        }
+    }
+
+    @Test
+    public void propagateBuildFailures() throws Exception {
+        XMLObjects xmlObjects = TestObjects.newContext()
+                .registerBuilder(new FailingBuilder(), TestObjects.NAMESPACE, "bad");
+
+        try (XMLReader reader = TestObjects.createReader(xmlObjects, "<root xmlns=\"urn:test\"><foo/><bad/></root>")) {
+            Iterator<Object> iterator = xmlObjects.iterator(reader, Object.class);
+            assertTrue(iterator.next() instanceof Foo);
+
+            UncheckedObjectBuildException e = assertThrows(UncheckedObjectBuildException.class, iterator::hasNext);
+            assertEquals("Failed to build {urn:test}bad.", e.getMessage());
+            assertNotNull(e.getCause());
+        }
+    }
+
+    @Test
+    public void propagateReadFailures() throws Exception {
+        XMLObjects xmlObjects = TestObjects.newContext();
+        try (XMLReader reader = TestObjects.createReader(xmlObjects, "<root xmlns=\"urn:test\"><foo/><foo></root>")) {
+            Iterator<Foo> iterator = xmlObjects.iterator(reader, Foo.class);
+            assertNotNull(iterator.next());
+            assertThrows(UncheckedXMLReadException.class, iterator::hasNext);
+        }
+    }
+
+    private static class FailingBuilder implements ObjectBuilder<Object> {
+
+        @Override
+        public Object createObject(QName name, Object parent) throws ObjectBuildException {
+            throw new ObjectBuildException("Failed to build " + name + ".");
+        }
+    }
+}
@@ -0,0 +1,214 @@
+/*
+ * xml-objects - A simple and lightweight XML-to-object mapping library
+ * https://github.com/xmlobjects
+ *
+ * Copyright 2019-2020 Claus Nagel <claus.nagel@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.xmlobjects;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.xmlobjects.builder.ObjectBuildException;
+import org.xmlobjects.builder.ObjectBuilder;
+import org.xmlobjects.builder.UncheckedObjectBuildException;
+import org.xmlobjects.stream.XMLReader;
+import org.xmlobjects.test.Foo;
+import org.xmlobjects.test.TestObjects;
+
+import javax.xml.namespace.QName;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ParallelObjectIteratorTest {
+    private static final int COUNT = 500;
+    private ExecutorService executor;
+
+    @BeforeEach
+    public void setUp() {
+        executor = Executors.newFixedThreadPool(4);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void buildInDocumentOrder() throws Exception {
+        XMLObjects xmlObjects = TestObjects.newContext();
+        try (XMLReader reader = TestObjects.createReader(xmlObjects, createDocument(null))) {
+            List<String> ids = xmlObjects.stream(reader, Foo.class, executor, true)
+                    .map(Foo::getId)
+                    .collect(Collectors.toList());
+
+            assertEquals(expectedIds(), ids);
+        }
+    }
+
+    @Test
+    public void buildInCompletionOrder() throws Exception {
+        XMLObjects xmlObjects = TestObjects.newContext();
+        try (XMLReader reader = TestObjects.createReader(xmlObjects, createDocument(null))) {
+            List<String> ids = xmlObjects.stream(reader, Foo.class, executor, false)
+                    .map(Foo::getId)
+                    .sorted()
+                    .collect(Collectors.toList());
+
+            assertEquals(expectedIds().stream().sorted().collect(Collectors.toList()), ids);
+        }
+    }
+
+    @Test
+    public void buildChildObjects() throws Exception {
+        XMLObjects xmlObjects = TestObjects.newContext();
+        String xml = "<root xmlns=\"urn:test\"><foo id=\"1\"><text>a</text><foo id=\"1.1\"/></foo></root>";
+        try (XMLReader reader = TestObjects.createReader(xmlObjects, xml)) {
+            List<Foo> foos = xmlObjects.stream(reader, Foo.class, executor, true).collect(Collectors.toList());
+            assertEquals(1, foos.size());
+            assertEquals("a", foos.get(0).getText());
+            assertEquals("1.1", ((Foo) foos.get(0).getChildren().get(0)).getId());
+        }
+    }
+
+    @Test
+    public void limitPendingObjects() throws Exception {
+        XMLObjects xmlObjects = TestObjects.newContext();
+        AtomicInteger submitted = new AtomicInteger();
+        Executor counting = task -> {
+            submitted.incrementAndGet();
+            executor.execute(task);
+        };
+
+        try (XMLReader reader = TestObjects.createReader(xmlObjects, createDocument(null))) {
+            Iterator<Foo> iterator = xmlObjects.iterator(reader, Foo.class, counting, true, 3);
+            assertEquals("0", iterator.next().getId());
+            assertEquals(3, submitted.get());
+            assertEquals("1", iterator.next().getId());
+            assertEquals(4, submitted.get());
+        }
+
+        try (XMLReader reader = TestObjects.createReader(xmlObjects, createDocument(null))) {
+            assertThrows(IllegalArgumentException.class, () -> xmlObjects.iterator(reader, Foo.class, executor, true, 0));
+        }
+    }
+
+    @Test
+    public void deriveDefaultCapacityFromExecutor() {
+        int processors = Runtime.getRuntime().availableProcessors();
+        assertEquals(8, ParallelObjectIterator.getDefaultCapacity(executor));
+        assertEquals(6, ParallelObjectIterator.getDefaultCapacity(new ForkJoinPool(3)));
+        assertEquals(processors * 2, ParallelObjectIterator.getDefaultCapacity(Runnable::run));
+
+        ExecutorService cached = Executors.newCachedThreadPool();
+        try {
+            assertEquals(processors * 2, ParallelObjectIterator.getDefaultCapacity(cached));
+        } finally {
+            cached.shutdownNow();
+        }
+    }
+
+    @Test
+    public void cancelPendingObjectsOnClose() throws Exception {
+        CountDownLatch started = new CountDownLatch(3);
+        CountDownLatch interrupted = new CountDownLatch(3);
+        XMLObjects xmlObjects = TestObjects.newContext()
+                .registerBuilder(new BlockingBuilder(started, interrupted), TestObjects.NAMESPACE, "slow");
+
+        String xml = "<root xmlns=\"urn:test\"><foo id=\"0\"/><slow/><slow/><slow/><slow/></root>";
+        try (XMLReader reader = TestObjects.createReader(xmlObjects, xml)) {
+            try (Stream<Object> stream = xmlObjects.stream(reader, Object.class, executor, true, 4)) {
+                assertEquals("0", ((Foo) stream.iterator().next()).getId());
+                assertTrue(started.await(10, TimeUnit.SECONDS));
+            }
+
+            assertTrue(interrupted.await(10, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    public void propagateBuildFailures() throws Exception {
+        XMLObjects xmlObjects = TestObjects.newContext()
+                .registerBuilder(new FailingBuilder(), TestObjects.NAMESPACE, "bad");
+
+        for (boolean ordered : new boolean[]{true, false}) {
+            try (XMLReader reader = TestObjects.createReader(xmlObjects, createDocument("<bad/>"))) {
+                UncheckedObjectBuildException e = assertThrows(UncheckedObjectBuildException.class, () ->
+                        xmlObjects.stream(reader, Object.class, executor, ordered).count());
+                assertNotNull(e.getCause());
+                assertEquals("Failed to build {urn:test}bad.", e.getMessage());
+            }
+        }
+    }
+
+    private String createDocument(String element) {
+        StringBuilder xml = new StringBuilder("<root xmlns=\"urn:test\">");
+        for (int i = 0; i < COUNT; i++) {
+            xml.append("<foo id=\"").append(i).append("\"><text>").append(i).append("</text></foo>");
+            if (element != null && i == COUNT / 2)
+                xml.append(element);
+        }
+
+        return xml.append("</root>").toString();
+    }
+
+    private List<String> expectedIds() {
+        return IntStream.range(0, COUNT).mapToObj(String::valueOf).collect(Collectors.toList());
+    }
+
+    private static class FailingBuilder implements ObjectBuilder<Object> {
+
+        @Override
+        public Object createObject(QName name, Object parent) throws ObjectBuildException {
+            throw new ObjectBuildException("Failed to build " + name + ".");
+        }
+    }
+
+    private static class BlockingBuilder implements ObjectBuilder<Object> {
+        private final CountDownLatch started;
+        private final CountDownLatch interrupted;
+
+        BlockingBuilder(CountDownLatch started, CountDownLatch interrupted) {
+            this.started = started;
+            this.interrupted = interrupted;
+        }
+
+        @Override
+        public Object createObject(QName name, Object parent) throws ObjectBuildException {
+            started.countDown();
+            try {
+                Thread.sleep(60000);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+
+            throw new ObjectBuildException("Interrupted while building " + name + ".");
+        }
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * xml-objects - A simple and lightweight XML-to-object mapping library
+ * https://github.com/xmlobjects
+ *
+ * Copyright 2019-2020 Claus Nagel <claus.nagel@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.xmlobjects;
+
+import org.junit.jupiter.api.Test;
+import org.xmlobjects.serializer.ObjectSerializer;
+import org.xmlobjects.test.Foo;
+import org.xmlobjects.test.FooSerializer;
+import org.xmlobjects.test.TestObjects;
+import org.xmlobjects.xml.Element;
+import org.xmlobjects.xml.Namespaces;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SerializerLookupTest {
+
+    @Test
+    public void resolveAlongClassHierarchy() throws Exception {
+        XMLObjects xmlObjects = TestObjects.newContext();
+        MarkerSerializer markerSerializer = new MarkerSerializer();
+        xmlObjects.registerSerializer(markerSerializer, Marker.class, TestObjects.NAMESPACE);
+
+        assertTrue(xmlObjects.getSerializer(Foo.class, TestObjects.NAMESPACE) instanceof FooSerializer);
+        assertTrue(xmlObjects.getSerializer(SubFoo.class, TestObjects.NAMESPACE) instanceof FooSerializer);
+        assertSame(markerSerializer, xmlObjects.getSerializer(Marked.class, TestObjects.NAMESPACE));
+        assertNull(xmlObjects.getSerializer(Object.class, TestObjects.NAMESPACE));
+        assertNull(xmlObjects.getSerializer(SubFoo.class, "urn:other"));
+
+        SubFooSerializer subFooSerializer = new SubFooSerializer();
+        xmlObjects.registerSerializer(subFooSerializer, SubFoo.class, "urn:other");
+        assertSame(subFooSerializer, xmlObjects.getSerializer(SubFoo.class, "urn:other"));
+        assertTrue(xmlObjects.getSerializer(SubFoo.class, TestObjects.NAMESPACE) instanceof FooSerializer);
+
+        xmlObjects.unloadSerializers("urn:other");
+        assertNull(xmlObjects.getSerializer(SubFoo.class, "urn:other"));
+    }
+
+    @Test
+    public void resolveForChangingNamespaces() throws Exception {
+        XMLObjects xmlObjects = TestObjects.newContext();
+        SubFooSerializer subFooSerializer = new SubFooSerializer();
+        xmlObjects.registerSerializer(subFooSerializer, SubFoo.class, "urn:other");
+
+        Namespaces namespaces = Namespaces.of(TestObjects.NAMESPACE);
+        Namespaces other = Namespaces.of("urn:other");
+        assertTrue(xmlObjects.getSerializer(SubFoo.class, namespaces) instanceof FooSerializer);
+        assertSame(subFooSerializer, xmlObjects.getSerializer(SubFoo.class, other));
+        assertTrue(xmlObjects.getSerializer(SubFoo.class, namespaces) instanceof FooSerializer);
+
+        namespaces.add("urn:other");
+        assertSame(subFooSerializer, xmlObjects.getSerializer(SubFoo.class, namespaces));
+
+        namespaces.remove("urn:other");
+        assertTrue(xmlObjects.getSerializer(SubFoo.class, namespaces) instanceof FooSerializer);
+
+        namespaces.clear();
+        assertNull(xmlObjects.getSerializer(SubFoo.class, namespaces));
+    }
+
+    public interface Marker {
+    }
+
+    public static class SubFoo extends Foo {
+    }
+
+    public static class Marked implements Marker {
+    }
+
+    public static class SubFooSerializer implements ObjectSerializer<SubFoo> {
+
+        @Override
+        public Element createElement(SubFoo object, Namespaces namespaces) {
+            return Element.of("urn:other", "subFoo");
+        }
+    }
+
+    public static class MarkerSerializer implements ObjectSerializer<Marker> {
+
+        @Override
+        public Element createElement(Marker object, Namespaces namespaces) {
+            return Element.of(TestObjects.NAMESPACE, "marker");
+        }
+    }
+}
@@ -0,0 +1,211 @@
+/*
+ * xml-objects - A simple and lightweight XML-to-object mapping library
+ * https://github.com/xmlobjects
+ *
+ * Copyright 2019-2020 Claus Nagel <claus.nagel@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.xmlobjects;
+
+import org.junit.jupiter.api.Test;
+import org.xmlobjects.annotation.Stateful;
+import org.xmlobjects.builder.ObjectBuildException;
+import org.xmlobjects.builder.ObjectBuilder;
+import org.xmlobjects.serializer.ObjectSerializeException;
+import org.xmlobjects.serializer.ObjectSerializer;
+import org.xmlobjects.stream.XMLReader;
+import org.xmlobjects.test.Foo;
+import org.xmlobjects.test.FooBuilder;
+import org.xmlobjects.test.FooSerializer;
+import org.xmlobjects.test.TestObjects;
+import org.xmlobjects.xml.Element;
+import org.xmlobjects.xml.Namespaces;
+
+import javax.xml.namespace.QName;
+import java.lang.reflect.InvocationTargetException;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SharedInstancesTest {
+
+    @Test
+    public void shareStatelessInstances() throws Exception {
+        XMLObjects xmlObjects = TestObjects.newContext();
+        ObjectBuilder<Foo> builder = xmlObjects.getSharedBuilder(FooBuilder.class);
+        ObjectSerializer<Foo> serializer = xmlObjects.getSharedSerializer(FooSerializer.class);
+
+        assertNotNull(builder);
+        assertSame(builder, xmlObjects.getSharedBuilder(FooBuilder.class));
+        assertSame(serializer, xmlObjects.getSharedSerializer(FooSerializer.class));
+        assertNotSame(builder, TestObjects.newContext().getSharedBuilder(FooBuilder.class));
+
+        try (XMLReader reader = TestObjects.createReader(xmlObjects, "<foo xmlns=\"urn:test\"/>")) {
+            assertSame(builder, reader.getOrCreateBuilder(FooBuilder.class));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Callable<Object>> tasks = IntStream.range(0, 16)
+                    .mapToObj(i -> (Callable<Object>) () -> xmlObjects.getSharedBuilder(FooBuilder.class))
+                    .collect(Collectors.toList());
+
+            for (Future<Object> future : executor.invokeAll(tasks))
+                assertSame(builder, future.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void keepStatefulInstancesPerReader() throws Exception {
+        XMLObjects xmlObjects = TestObjects.newContext();
+        assertNull(xmlObjects.getSharedBuilder(StatefulBuilder.class));
+
+        ObjectBuilder<Foo> builder;
+        try (XMLReader reader = TestObjects.createReader(xmlObjects, "<foo xmlns=\"urn:test\"/>")) {
+            builder = reader.getOrCreateBuilder(StatefulBuilder.class);
+            assertSame(builder, reader.getOrCreateBuilder(StatefulBuilder.class));
+        }
+
+        try (XMLReader reader = TestObjects.createReader(xmlObjects, "<foo xmlns=\"urn:test\"/>")) {
+            assertNotSame(builder, reader.getOrCreateBuilder(StatefulBuilder.class));
+        }
+    }
+
+    @Test
+    public void inheritStatefulAnnotation() throws Exception {
+        XMLObjects xmlObjects = TestObjects.newContext();
+        assertNull(xmlObjects.getSharedBuilder(StatefulSubBuilder.class));
+
+        ObjectBuilder<Foo> builder;
+        try (XMLReader reader = TestObjects.createReader(xmlObjects, "<foo xmlns=\"urn:test\"/>")) {
+            builder = reader.getOrCreateBuilder(StatefulSubBuilder.class);
+            assertTrue(builder instanceof StatefulSubBuilder);
+            assertSame(builder, reader.getOrCreateBuilder(StatefulSubBuilder.class));
+        }
+
+        try (XMLReader reader = TestObjects.createReader(xmlObjects, "<foo xmlns=\"urn:test\"/>")) {
+            assertNotSame(builder, reader.getOrCreateBuilder(StatefulSubBuilder.class));
+        }
+    }
+
+    @Test
+    public void reportInstantiationFailureCauses() throws Exception {
+        XMLObjects xmlObjects = TestObjects.newContext();
+
+        ObjectBuildException e = assertThrows(ObjectBuildException.class, () -> xmlObjects.getSharedBuilder(FailingBuilder.class));
+        assertEquals("Failed to create an instance of the builder " + FailingBuilder.class.getName() + ".", e.getMessage());
+        assertTrue(e.getCause() instanceof InvocationTargetException);
+
+        e = assertThrows(ObjectBuildException.class, () -> xmlObjects.getSharedBuilder(NoDefaultConstructorBuilder.class));
+        assertEquals("The builder " + NoDefaultConstructorBuilder.class.getName() + " lacks a default constructor.", e.getMessage());
+        assertTrue(e.getCause() instanceof NoSuchMethodException);
+
+        ObjectSerializeException s = assertThrows(ObjectSerializeException.class, () -> xmlObjects.getSharedSerializer(FailingSerializer.class));
+        assertEquals("Failed to create an instance of the serializer " + FailingSerializer.class.getName() + ".", s.getMessage());
+
+        try (XMLReader reader = TestObjects.createReader(xmlObjects, "<foo xmlns=\"urn:test\"/>")) {
+            e = assertThrows(ObjectBuildException.class, () -> reader.getOrCreateBuilder(FailingStatefulBuilder.class));
+            assertEquals("Failed to create an instance of the builder " + FailingStatefulBuilder.class.getName() + ".", e.getMessage());
+        }
+    }
+
+    @Test
+    public void cacheInstantiationFailures() throws Exception {
+        XMLObjects xmlObjects = TestObjects.newContext();
+        FailingBuilder.attempts = 0;
+        FailingSerializer.attempts = 0;
+
+        for (int i = 0; i < 3; i++) {
+            assertThrows(ObjectBuildException.class, () -> xmlObjects.getSharedBuilder(FailingBuilder.class));
+            assertThrows(ObjectSerializeException.class, () -> xmlObjects.getSharedSerializer(FailingSerializer.class));
+        }
+
+        assertEquals(1, FailingBuilder.attempts);
+        assertEquals(1, FailingSerializer.attempts);
+    }
+
+    @Stateful
+    public static class StatefulBuilder implements ObjectBuilder<Foo> {
+
+        @Override
+        public Foo createObject(QName name, Object parent) {
+            return new Foo();
+        }
+    }
+
+    public static class StatefulSubBuilder extends StatefulBuilder {
+    }
+
+    public static class NoDefaultConstructorBuilder implements ObjectBuilder<Foo> {
+
+        public NoDefaultConstructorBuilder(String value) {
+        }
+
+        @Override
+        public Foo createObject(QName name, Object parent) {
+            return new Foo();
+        }
+    }
+
+    @Stateful
+    public static class FailingStatefulBuilder implements ObjectBuilder<Foo> {
+
+        public FailingStatefulBuilder() {
+            throw new IllegalArgumentException("Failed to initialize builder.");
+        }
+
+        @Override
+        public Foo createObject(QName name, Object parent) {
+            return new Foo();
+        }
+    }
+
+    public static class FailingBuilder implements ObjectBuilder<Foo> {
+        static int attempts;
+
+        public FailingBuilder() {
+            attempts++;
+            throw new IllegalArgumentException("Failed to initialize builder.");
+        }
+
+        @Override
+        public Foo createObject(QName name, Object parent) {
+            return new Foo();
+        }
+    }
+
+    public static class FailingSerializer implements ObjectSerializer<Foo> {
+        static int attempts;
+
+        public FailingSerializer() {
+            attempts++;
+            throw new IllegalArgumentException("Failed to initialize serializer.");
+        }
+
+        @Override
+        public Element createElement(Foo object, Namespaces namespaces) {
+            return Element.of(TestObjects.NAMESPACE, "foo");
+        }
+    }
+}
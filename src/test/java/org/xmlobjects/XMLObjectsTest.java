@@ -0,0 +1,170 @@
+/*
+ * xml-objects - A simple and lightweight XML-to-object mapping library
+ * https://github.com/xmlobjects
+ *
+ * Copyright 2019-2020 Claus Nagel <claus.nagel@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.xmlobjects;
+
+import org.junit.jupiter.api.Test;
+import org.xmlobjects.builder.ObjectBuilder;
+import org.xmlobjects.test.Foo;
+import org.xmlobjects.test.FooBuilder;
+import org.xmlobjects.test.FooSerializer;
+import org.xmlobjects.test.TestObjects;
+
+import javax.xml.namespace.QName;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class XMLObjectsTest {
+
+    @Test
+    public void registerBuilderAndSerializer() throws Exception {
+        XMLObjects xmlObjects = TestObjects.newContext();
+
+        ObjectBuilder<?> builder = xmlObjects.getBuilder(TestObjects.NAMESPACE, "foo");
+        assertTrue(builder instanceof FooBuilder);
+        assertSame(builder, xmlObjects.getBuilder(TestObjects.NAMESPACE, "foo", Foo.class));
+        assertNull(xmlObjects.getBuilder(TestObjects.NAMESPACE, "foo", String.class));
+        assertEquals(Foo.class, xmlObjects.getObjectType(builder));
+        assertTrue(xmlObjects.getSerializer(Foo.class, TestObjects.NAMESPACE) instanceof FooSerializer);
+        assertTrue(xmlObjects.getSerializableNamespaces().contains(TestObjects.NAMESPACE));
+    }
+
+    @Test
+    public void reverseBuilderIndex() throws Exception {
+        XMLObjects xmlObjects = TestObjects.newContext();
+        FooBuilder builder = new FooBuilder();
+        xmlObjects.registerBuilder(builder, TestObjects.NAMESPACE, "bar")
+                .registerBuilder(builder, "urn:other", "bar");
+
+        assertEquals(Foo.class, xmlObjects.getObjectType(builder));
+        assertEquals(Foo.class, xmlObjects.getObjectType("urn:other", builder));
+        assertEquals(Object.class, xmlObjects.getObjectType("urn:unknown", builder));
+        assertEquals(Object.class, xmlObjects.getObjectType(new FooBuilder()));
+        assertEquals(new HashSet<>(Arrays.asList(
+                new QName(TestObjects.NAMESPACE, "bar"),
+                new QName("urn:other", "bar"))), xmlObjects.getElementNames(builder));
+        assertEquals(new HashSet<>(Arrays.asList(
+                new QName(TestObjects.NAMESPACE, "foo"),
+                new QName(TestObjects.NAMESPACE, "bar"),
+                new QName("urn:other", "bar"))), xmlObjects.getElementNames(FooBuilder.class));
+
+        xmlObjects.unloadBuilders("urn:other");
+        assertEquals(Collections.singleton(new QName(TestObjects.NAMESPACE, "bar")), xmlObjects.getElementNames(builder));
+    }
+
+    @Test
+    public void readAndWrite() throws Exception {
+        XMLObjects xmlObjects = TestObjects.newContext();
+        Foo foo = TestObjects.read(xmlObjects,
+                "<foo xmlns=\"urn:test\" id=\"1\"><text>a</text><foo id=\"2\"/></foo>");
+
+        assertEquals("1", foo.getId());
+        assertEquals("a", foo.getText());
+        assertEquals(1, foo.getChildren().size());
+        assertEquals("2", ((Foo) foo.getChildren().get(0)).getId());
+
+        String xml = TestObjects.write(xmlObjects, foo);
+        Foo copy = TestObjects.read(xmlObjects, xml);
+        assertEquals("1", copy.getId());
+        assertEquals("a", copy.getText());
+        assertEquals("2", ((Foo) copy.getChildren().get(0)).getId());
+    }
+
+    @Test
+    public void cacheSerializableNamespacesAndPrefixes() throws Exception {
+        XMLObjects xmlObjects = TestObjects.newContext();
+        xmlObjects.registerSerializer(new FooSerializer(), Foo.class, "urn:a");
+
+        Set<String> namespaces = xmlObjects.getSerializableNamespaces();
+        Map<String, String> prefixes = xmlObjects.getInternalPrefixes();
+        assertSame(namespaces, xmlObjects.getSerializableNamespaces());
+        assertSame(prefixes, xmlObjects.getInternalPrefixes());
+        assertTrue(namespaces.containsAll(Arrays.asList("urn:a", TestObjects.NAMESPACE)));
+        assertThrows(UnsupportedOperationException.class, () -> namespaces.add("urn:b"));
+
+        assertEquals(namespaces, prefixes.keySet());
+        assertEquals(namespaces.size(), new HashSet<>(prefixes.values()).size());
+        assertTrue(prefixes.get("urn:a").compareTo(prefixes.get(TestObjects.NAMESPACE)) < 0);
+
+        xmlObjects.registerSerializer(new FooSerializer(), Foo.class, "urn:b");
+        assertNotSame(namespaces, xmlObjects.getSerializableNamespaces());
+        assertFalse(namespaces.contains("urn:b"));
+        assertTrue(xmlObjects.getSerializableNamespaces().contains("urn:b"));
+        assertTrue(xmlObjects.getInternalPrefixes().containsKey("urn:b"));
+    }
+
+    @Test
+    public void unloadBuildersAndSerializers() throws Exception {
+        XMLObjects xmlObjects = TestObjects.newContext();
+        xmlObjects.unloadBuilders(TestObjects.NAMESPACE);
+        xmlObjects.unloadSerializers(TestObjects.NAMESPACE);
+
+        assertNull(xmlObjects.getBuilder(TestObjects.NAMESPACE, "foo"));
+        assertNull(xmlObjects.getSerializer(Foo.class, TestObjects.NAMESPACE));
+        assertFalse(xmlObjects.getSerializableNamespaces().contains(TestObjects.NAMESPACE));
+    }
+
+    @Test
+    public void lookupsDuringConcurrentRegistration() throws Exception {
+        XMLObjects xmlObjects = TestObjects.newContext();
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        CountDownLatch started = new CountDownLatch(4);
+
+        Thread[] readers = new Thread[4];
+        for (int i = 0; i < readers.length; i++) {
+            readers[i] = new Thread(() -> {
+                started.countDown();
+                try {
+                    while (!done.get()) {
+                        assertNotNull(xmlObjects.getBuilder(TestObjects.NAMESPACE, "foo"));
+                        assertNotNull(xmlObjects.getSerializer(Foo.class, TestObjects.NAMESPACE));
+                    }
+                } catch (Throwable e) {
+                    failure.set(e);
+                }
+            });
+            readers[i].start();
+        }
+
+        started.await();
+        FooBuilder builder = new FooBuilder();
+        for (int i = 0; i < 1000; i++)
+            xmlObjects.registerBuilder(builder, TestObjects.NAMESPACE, "foo" + i);
+
+        done.set(true);
+        for (Thread reader : readers)
+            reader.join();
+
+        assertNull(failure.get());
+        for (int i = 0; i < 1000; i++)
+            assertSame(builder, xmlObjects.getBuilder(TestObjects.NAMESPACE, "foo" + i));
+
+        assertEquals(1000, xmlObjects.getElementNames(builder).size());
+    }
+}
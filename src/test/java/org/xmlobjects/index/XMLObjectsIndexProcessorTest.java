@@ -0,0 +1,124 @@
+/*
+ * xml-objects - A simple and lightweight XML-to-object mapping library
+ * https://github.com/xmlobjects
+ *
+ * Copyright 2019-2020 Claus Nagel <claus.nagel@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.xmlobjects.index;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.xmlobjects.XMLObjects;
+import org.xmlobjects.annotation.XMLElement;
+
+import javax.tools.JavaCompiler;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.ServiceLoader;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class XMLObjectsIndexProcessorTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void generateIndex() throws Exception {
+        Path output = compile("a", "BarBuilder", "urn:a", "bar");
+        String className = getIndexClassName(output);
+        assertTrue(className.startsWith("com.example." + XMLObjectsIndexProcessor.DEFAULT_INDEX_CLASS_NAME + "_"));
+        assertTrue(Files.exists(output.resolve(className.replace('.', '/') + ".class")));
+
+        try (URLClassLoader loader = new URLClassLoader(new URL[]{output.toUri().toURL()}, getClass().getClassLoader())) {
+            List<XMLObjectsIndex> indexes = new ArrayList<>();
+            ServiceLoader.load(XMLObjectsIndex.class, loader).forEach(indexes::add);
+            assertEquals(1, indexes.size());
+
+            List<String> names = new ArrayList<>();
+            indexes.get(0).loadBuilders((type, factory, objectType, namespaceURI, localName) -> {
+                assertEquals("com.example.BarBuilder", type.getName());
+                assertEquals(String.class, objectType);
+                assertNotNull(factory.get());
+                names.add(namespaceURI + " " + localName);
+            });
+
+            assertEquals(Collections.singletonList("urn:a bar"), names);
+            assertNotNull(XMLObjects.newInstance(loader).getBuilder("urn:a", "bar", String.class));
+        }
+    }
+
+    @Test
+    public void generateUniqueIndexNames() throws Exception {
+        String first = getIndexClassName(compile("a", "BarBuilder", "urn:a", "bar"));
+        String second = getIndexClassName(compile("b", "BazBuilder", "urn:b", "baz"));
+        assertNotEquals(first, second);
+        assertEquals(first, getIndexClassName(compile("c", "BarBuilder", "urn:a", "bar")));
+    }
+
+    @Test
+    public void useIndexClassOption() throws Exception {
+        Path output = compile("a", "BarBuilder", "urn:a", "bar",
+                "-A" + XMLObjectsIndexProcessor.INDEX_CLASS_OPTION + "=com.example.index.BarIndex");
+        assertEquals("com.example.index.BarIndex", getIndexClassName(output));
+    }
+
+    private Path compile(String module, String className, String namespaceURI, String localName, String... options) throws Exception {
+        Path sources = Files.createDirectories(tempDir.resolve(module).resolve("src"));
+        Path output = Files.createDirectories(tempDir.resolve(module).resolve("classes"));
+        Path source = sources.resolve(className + ".java");
+        Files.write(source, Arrays.asList(
+                "package com.example;",
+                "",
+                "@org.xmlobjects.annotation.XMLElement(name = \"" + localName + "\", namespaceURI = \"" + namespaceURI + "\")",
+                "public class " + className + " implements org.xmlobjects.builder.ObjectBuilder<String> {",
+                "    public String createObject(javax.xml.namespace.QName name, Object parent) {",
+                "        return \"" + localName + "\";",
+                "    }",
+                "}"), StandardCharsets.UTF_8);
+
+        List<String> arguments = new ArrayList<>(Arrays.asList(
+                "-classpath", Paths.get(XMLElement.class.getProtectionDomain().getCodeSource().getLocation().toURI()).toString(),
+                "-d", output.toString()));
+        arguments.addAll(Arrays.asList(options));
+
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null, StandardCharsets.UTF_8)) {
+            JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, null, arguments, null,
+                    fileManager.getJavaFileObjects(source.toFile()));
+            task.setProcessors(Collections.singletonList(new XMLObjectsIndexProcessor()));
+            assertTrue(task.call());
+        }
+
+        return output;
+    }
+
+    private String getIndexClassName(Path output) throws Exception {
+        Path service = output.resolve(XMLObjectsIndexProcessor.SERVICE_FILE.replace('/', File.separatorChar));
+        return new String(Files.readAllBytes(service), StandardCharsets.UTF_8).trim();
+    }
+}
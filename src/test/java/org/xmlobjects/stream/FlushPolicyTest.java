@@ -0,0 +1,113 @@
+/*
+ * xml-objects - A simple and lightweight XML-to-object mapping library
+ * https://github.com/xmlobjects
+ *
+ * Copyright 2019-2020 Claus Nagel <claus.nagel@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.xmlobjects.stream;
+
+import org.junit.jupiter.api.Test;
+import org.xmlobjects.XMLObjects;
+import org.xmlobjects.test.Foo;
+import org.xmlobjects.test.TestObjects;
+import org.xmlobjects.xml.Element;
+import org.xmlobjects.xml.Namespaces;
+
+import java.io.StringWriter;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FlushPolicyTest {
+
+    @Test
+    public void evaluateThresholds() {
+        FlushPolicy policy = FlushPolicy.newInstance();
+        assertFalse(policy.shouldFlush(1000, 1000, Long.MAX_VALUE));
+
+        policy.afterObjects(10);
+        assertFalse(policy.shouldFlush(9, 0, 0));
+        assertTrue(policy.shouldFlush(10, 0, 0));
+
+        policy = FlushPolicy.newInstance().afterCharacters(100);
+        assertFalse(policy.shouldFlush(1000, 99, 0));
+        assertTrue(policy.shouldFlush(0, 100, 0));
+
+        policy = FlushPolicy.newInstance().afterInterval(1, TimeUnit.SECONDS);
+        assertTrue(policy.isTimed());
+        assertEquals(1000, policy.getInterval(TimeUnit.MILLISECONDS));
+        assertFalse(policy.shouldFlush(1000, 1000, TimeUnit.MILLISECONDS.toNanos(999)));
+        assertTrue(policy.shouldFlush(0, 0, TimeUnit.SECONDS.toNanos(1)));
+
+        policy = FlushPolicy.newInstance().afterObjects(-1).afterCharacters(-1).afterInterval(-1, TimeUnit.SECONDS);
+        assertEquals(0, policy.getObjects());
+        assertEquals(0, policy.getCharacters());
+        assertFalse(policy.isTimed());
+    }
+
+    @Test
+    public void flushAfterObjects() throws Exception {
+        assertEquals(10, write(FlushPolicy.newInstance().afterObjects(10), 100));
+        assertEquals(3, write(FlushPolicy.newInstance().afterObjects(30), 100));
+    }
+
+    @Test
+    public void flushAfterCharacters() throws Exception {
+        int flushes = write(FlushPolicy.newInstance().afterCharacters(1000), 100);
+        assertTrue(flushes > 0 && flushes < 100);
+    }
+
+    @Test
+    public void flushWithoutPolicy() throws Exception {
+        assertEquals(0, write(null, 100));
+        assertEquals(0, write(FlushPolicy.newInstance(), 100));
+    }
+
+    private int write(FlushPolicy policy, int count) throws Exception {
+        XMLObjects xmlObjects = TestObjects.newContext();
+        List<Foo> foos = IntStream.range(0, count)
+                .mapToObj(i -> new Foo(String.valueOf(i)))
+                .collect(Collectors.toList());
+
+        CountingWriter output = new CountingWriter();
+        try (XMLWriter writer = TestObjects.createWriter(xmlObjects, output)) {
+            writer.writeStartDocument();
+            writer.writeStartElement(Element.of(TestObjects.NAMESPACE, "root"));
+            output.flushes = 0;
+            writer.writeObjects(foos, Namespaces.of(TestObjects.NAMESPACE), policy);
+            int flushes = output.flushes;
+            writer.writeEndElement();
+            writer.writeEndDocument();
+
+            assertTrue(output.toString().contains("id=\"" + (count - 1) + "\""));
+            return flushes;
+        }
+    }
+
+    private static class CountingWriter extends StringWriter {
+        int flushes;
+
+        @Override
+        public void flush() {
+            flushes++;
+            super.flush();
+        }
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * xml-objects - A simple and lightweight XML-to-object mapping library
+ * https://github.com/xmlobjects
+ *
+ * Copyright 2019-2020 Claus Nagel <claus.nagel@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.xmlobjects.stream;
+
+import org.junit.jupiter.api.Test;
+import org.xmlobjects.XMLObjects;
+import org.xmlobjects.test.Foo;
+import org.xmlobjects.test.TestObjects;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class XMLFeedReaderTest {
+    private static final String XML = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" +
+            "<!-- header <foo id=\"comment\"/> -->\n" +
+            "<root xmlns=\"urn:test\" xmlns:o=\"urn:other\">\n" +
+            "  <foo id=\"1\"><text>a &lt; b</text></foo>\n" +
+            "  <o:skipped><foo id=\"nested\"/></o:skipped>\n" +
+            "  <foo id=\"2&gt;\" o:attr='x > y'><![CDATA[</foo>]]><foo id=\"2.1\"/></foo>\n" +
+            "  <?pi <foo/>?>\n" +
+            "  <foo id=\"3\"/>\n" +
+            "  <foo id=\"\u00e4\u20ac\ud83d\ude00\"><text>\u00fc</text></foo>\n" +
+            "</root>\n";
+
+    private static final List<String> IDS = Arrays.asList("1", "nested", "2>", "3", "\u00e4\u20ac\ud83d\ude00");
+
+    @Test
+    public void readCompleteInput() throws Exception {
+        assertEquals(IDS, read(XML.getBytes(StandardCharsets.UTF_8).length));
+    }
+
+    @Test
+    public void readSplitChunks() throws Exception {
+        for (int chunkSize : new int[]{1, 2, 3, 7, 13, 64})
+            assertEquals(IDS, read(chunkSize), "chunk size " + chunkSize);
+    }
+
+    @Test
+    public void readMemberContent() throws Exception {
+        XMLFeedReader<Foo> reader = createFeedReader();
+        feed(reader, XML.getBytes(StandardCharsets.UTF_8), 5);
+
+        List<Foo> foos = new ArrayList<>();
+        while (reader.next() == XMLFeedReader.Status.OBJECT)
+            foos.add(reader.getObject());
+
+        assertEquals("a < b", foos.get(0).getText());
+        assertEquals("2.1", ((Foo) foos.get(2).getChildren().get(0)).getId());
+        assertEquals("\u00fc", foos.get(4).getText());
+    }
+
+    @Test
+    public void requestMoreInput() throws Exception {
+        XMLFeedReader<Foo> reader = createFeedReader();
+        byte[] bytes = "<root xmlns=\"urn:test\"><foo id=\"1\"/><foo id=".getBytes(StandardCharsets.UTF_8);
+        reader.feed(ByteBuffer.wrap(bytes));
+
+        assertEquals(XMLFeedReader.Status.OBJECT, reader.next());
+        assertEquals("1", reader.getObject().getId());
+        assertEquals(XMLFeedReader.Status.NEED_MORE_INPUT, reader.next());
+        assertNull(reader.getObject());
+
+        bytes = "\"2\"/></root>".getBytes(StandardCharsets.UTF_8);
+        reader.feed(bytes, 0, bytes.length);
+        reader.endOfInput();
+
+        assertEquals(XMLFeedReader.Status.OBJECT, reader.next());
+        assertEquals("2", reader.getObject().getId());
+        assertEquals(XMLFeedReader.Status.END_OF_INPUT, reader.next());
+        assertThrows(IllegalStateException.class, () -> reader.feed(new byte[1], 0, 1));
+    }
+
+    @Test
+    public void failOnTruncatedInput() throws Exception {
+        XMLFeedReader<Foo> reader = createFeedReader();
+        byte[] bytes = "<root xmlns=\"urn:test\"><foo id=\"1\"/><foo>".getBytes(StandardCharsets.UTF_8);
+        reader.feed(bytes, 0, bytes.length);
+        reader.endOfInput();
+
+        assertEquals(XMLFeedReader.Status.OBJECT, reader.next());
+        assertThrows(XMLReadException.class, reader::next);
+    }
+
+    @Test
+    public void ignoreContentAfterRootElement() throws Exception {
+        XMLFeedReader<Foo> reader = createFeedReader();
+        byte[] bytes = "<root xmlns=\"urn:test\"/><foo id=\"1\"/>".getBytes(StandardCharsets.UTF_8);
+        reader.feed(bytes, 0, bytes.length);
+        reader.endOfInput();
+
+        assertEquals(XMLFeedReader.Status.END_OF_INPUT, reader.next());
+    }
+
+    private List<String> read(int chunkSize) throws Exception {
+        XMLFeedReader<Foo> reader = createFeedReader();
+        byte[] bytes = XML.getBytes(StandardCharsets.UTF_8);
+        List<String> ids = new ArrayList<>();
+
+        for (int offset = 0; offset < bytes.length; offset += chunkSize) {
+            reader.feed(ByteBuffer.wrap(bytes, offset, Math.min(chunkSize, bytes.length - offset)));
+            if (offset + chunkSize >= bytes.length)
+                reader.endOfInput();
+
+            XMLFeedReader.Status status;
+            while ((status = reader.next()) == XMLFeedReader.Status.OBJECT)
+                ids.add(reader.getObject().getId());
+
+            if (status == XMLFeedReader.Status.END_OF_INPUT)
+                break;
+        }
+
+        return ids;
+    }
+
+    private void feed(XMLFeedReader<Foo> reader, byte[] bytes, int chunkSize) {
+        for (int offset = 0; offset < bytes.length; offset += chunkSize)
+            reader.feed(bytes, offset, Math.min(chunkSize, bytes.length - offset));
+
+        reader.endOfInput();
+    }
+
+    private XMLFeedReader<Foo> createFeedReader() throws Exception {
+        XMLObjects xmlObjects = TestObjects.newContext();
+        return XMLReaderFactory.newInstance(xmlObjects).createFeedReader(Foo.class);
+    }
+}
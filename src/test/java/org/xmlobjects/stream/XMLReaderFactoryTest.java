@@ -0,0 +1,326 @@
+/*
+ * xml-objects - A simple and lightweight XML-to-object mapping library
+ * https://github.com/xmlobjects
+ *
+ * Copyright 2019-2020 Claus Nagel <claus.nagel@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.xmlobjects.stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.xmlobjects.XMLObjects;
+import org.xmlobjects.annotation.Stateful;
+import org.xmlobjects.builder.ObjectBuilder;
+import org.xmlobjects.test.Foo;
+import org.xmlobjects.test.TestObjects;
+import org.xmlobjects.util.xml.DepthXMLStreamReader;
+import org.xmlobjects.util.xml.UTF8StreamReader;
+
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLStreamReader;
+import java.io.ByteArrayInputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class XMLReaderFactoryTest {
+    private static final String XML = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>" +
+            "<foo xmlns=\"urn:test\" id=\"1\"><text>\u00e4</text><foo id=\"2\"/></foo>";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void readMappedFile() throws Exception {
+        XMLObjects xmlObjects = TestObjects.newContext();
+        Path file = tempDir.resolve("foo.xml");
+        Files.write(file, XML.getBytes(StandardCharsets.UTF_8));
+
+        XMLReaderFactory factory = XMLReaderFactory.newInstance(xmlObjects).useMemoryMapping(true);
+        assertTrue(factory.isUseMemoryMapping());
+
+        try (XMLReader reader = factory.createReader(file)) {
+            assertFoo(xmlObjects.fromXML(reader, Foo.class));
+            assertEquals(file.toUri().normalize(), reader.getBaseURI());
+        }
+
+        try (XMLReader reader = factory.createReader(file.toFile())) {
+            assertFoo(xmlObjects.fromXML(reader, Foo.class));
+        }
+    }
+
+    @Test
+    public void readByteBuffer() throws Exception {
+        XMLObjects xmlObjects = TestObjects.newContext();
+        ByteBuffer buffer = ByteBuffer.wrap(XML.getBytes(StandardCharsets.UTF_8));
+        XMLReaderFactory factory = XMLReaderFactory.newInstance(xmlObjects);
+
+        try (XMLReader reader = factory.createReader(buffer)) {
+            assertFoo(xmlObjects.fromXML(reader, Foo.class));
+        }
+
+        assertEquals(0, buffer.position());
+        try (XMLReader reader = factory.createReader(buffer, "UTF-8")) {
+            assertFoo(xmlObjects.fromXML(reader, Foo.class));
+        }
+    }
+
+    @Test
+    public void readCompressedFiles() throws Exception {
+        XMLObjects xmlObjects = TestObjects.newContext();
+        byte[] bytes = XML.getBytes(StandardCharsets.UTF_8);
+
+        Path gzip = tempDir.resolve("foo.xml.gz");
+        try (OutputStream output = new GZIPOutputStream(Files.newOutputStream(gzip))) {
+            output.write(bytes);
+        }
+
+        Path zlib = tempDir.resolve("foo.xml.z");
+        try (OutputStream output = new DeflaterOutputStream(Files.newOutputStream(zlib))) {
+            output.write(bytes);
+        }
+
+        Path zip = tempDir.resolve("foo.zip");
+        try (ZipOutputStream output = new ZipOutputStream(Files.newOutputStream(zip))) {
+            output.putNextEntry(new ZipEntry("data/"));
+            output.closeEntry();
+            output.putNextEntry(new ZipEntry("data/foo.xml"));
+            output.write(bytes);
+            output.closeEntry();
+        }
+
+        for (boolean useMemoryMapping : new boolean[]{false, true}) {
+            XMLReaderFactory factory = XMLReaderFactory.newInstance(xmlObjects).useMemoryMapping(useMemoryMapping);
+            for (Path file : new Path[]{gzip, zlib, zip}) {
+                try (XMLReader reader = factory.createReader(file)) {
+                    assertFoo(xmlObjects.fromXML(reader, Foo.class));
+                }
+
+                try (XMLReader reader = factory.createReader(file.toFile())) {
+                    assertFoo(xmlObjects.fromXML(reader, Foo.class));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void rejectZipArchivesWithSeveralFiles() throws Exception {
+        XMLObjects xmlObjects = TestObjects.newContext();
+        Path zip = tempDir.resolve("foo.zip");
+        try (ZipOutputStream output = new ZipOutputStream(Files.newOutputStream(zip))) {
+            output.putNextEntry(new ZipEntry("foo.xml"));
+            output.write(XML.getBytes(StandardCharsets.UTF_8));
+            output.closeEntry();
+            output.putNextEntry(new ZipEntry("data/"));
+            output.closeEntry();
+            output.putNextEntry(new ZipEntry("data/bar.xml"));
+            output.write(XML.getBytes(StandardCharsets.UTF_8));
+            output.closeEntry();
+        }
+
+        XMLReaderFactory factory = XMLReaderFactory.newInstance(xmlObjects);
+        XMLReadException e = assertThrows(XMLReadException.class, () -> {
+            try (XMLReader reader = factory.createReader(zip)) {
+                xmlObjects.fromXML(reader, Foo.class);
+                while (reader.hasNext())
+                    reader.nextTag();
+            }
+        });
+
+        Throwable cause = e;
+        while (cause != null && (cause.getMessage() == null || !cause.getMessage().contains("more than one file")))
+            cause = cause.getCause();
+
+        assertNotNull(cause);
+        assertEquals("The ZIP archive contains more than one file (found data/bar.xml).", cause.getMessage());
+    }
+
+    @Test
+    public void skipDecompression() throws Exception {
+        XMLObjects xmlObjects = TestObjects.newContext();
+        Path gzip = tempDir.resolve("foo.xml.gz");
+        try (OutputStream output = new GZIPOutputStream(Files.newOutputStream(gzip))) {
+            output.write(XML.getBytes(StandardCharsets.UTF_8));
+        }
+
+        XMLReaderFactory factory = XMLReaderFactory.newInstance(xmlObjects).decompressInput(false);
+        assertFalse(factory.isDecompressInput());
+        assertThrows(XMLReadException.class, () -> {
+            try (XMLReader reader = factory.createReader(gzip)) {
+                xmlObjects.fromXML(reader, Foo.class);
+            }
+        });
+    }
+
+    @Test
+    public void selectDefaultBackend() throws Exception {
+        XMLObjects xmlObjects = TestObjects.newContext();
+        XMLReaderFactory factory = XMLReaderFactory.newInstance(xmlObjects);
+
+        assertSame(StandardStAXBackend.DEFAULT, factory.getBackend());
+        assertSame(ReaderProfile.DEFAULT, factory.getProfile());
+        assertTrue(factory.getActiveBackend().startsWith("default ("));
+        assertTrue(factory.getActiveBackend().endsWith(", default profile)"));
+        assertFoo(read(xmlObjects, factory));
+    }
+
+    @Test
+    public void selectJDKBackend() throws Exception {
+        XMLObjects xmlObjects = TestObjects.newContext();
+        XMLReaderFactory factory = XMLReaderFactory.newInstance(xmlObjects).withBackend("JDK");
+
+        assertSame(StandardStAXBackend.JDK, factory.getBackend());
+        assertTrue(factory.getActiveBackend().startsWith("jdk (com.sun.xml.internal.stream.XMLInputFactoryImpl"));
+        assertFoo(read(xmlObjects, factory));
+
+        factory.useBuiltInParser(true);
+        assertTrue(factory.getActiveBackend().startsWith("built-in UTF-8 parser, falling back to jdk ("));
+        assertFoo(read(xmlObjects, factory));
+    }
+
+    @Test
+    public void selectProfiles() throws Exception {
+        XMLObjects xmlObjects = TestObjects.newContext();
+        XMLReaderFactory factory = XMLReaderFactory.newInstance(xmlObjects).withProfile("throughput");
+
+        assertSame(ReaderProfile.THROUGHPUT, factory.getProfile());
+        assertTrue(factory.getActiveBackend().endsWith(", throughput profile)"));
+        assertFoo(read(xmlObjects, factory));
+
+        factory.withBackend(StandardStAXBackend.JDK).withProfile(ReaderProfile.LOW_MEMORY);
+        assertSame(ReaderProfile.LOW_MEMORY, factory.getProfile());
+        assertSame(StandardStAXBackend.JDK, factory.getBackend());
+        assertTrue(factory.getActiveBackend().endsWith(", low-memory profile)"));
+        assertFoo(read(xmlObjects, factory));
+    }
+
+    @Test
+    public void rejectUnknownNames() throws Exception {
+        XMLReaderFactory factory = XMLReaderFactory.newInstance(TestObjects.newContext());
+
+        XMLReadException e = assertThrows(XMLReadException.class, () -> factory.withBackend("unknown"));
+        assertEquals("Unknown StAX backend unknown (available backends: default, jdk, woodstox, aalto).", e.getMessage());
+        assertTrue(e.getCause() instanceof IllegalArgumentException);
+
+        e = assertThrows(XMLReadException.class, () -> factory.withProfile("unknown"));
+        assertEquals("Unknown reader profile unknown (available profiles: default, throughput, low-memory).", e.getMessage());
+        assertTrue(e.getCause() instanceof IllegalArgumentException);
+
+        assertSame(StandardStAXBackend.DEFAULT, factory.getBackend());
+        assertSame(ReaderProfile.DEFAULT, factory.getProfile());
+    }
+
+    @Test
+    public void reuseClosedReaders() throws Exception {
+        XMLObjects xmlObjects = TestObjects.newContext();
+        XMLReaderFactory factory = XMLReaderFactory.newInstance(xmlObjects)
+                .reuseReaders(true)
+                .useBuiltInParser(true);
+
+        XMLReader reader = factory.createReader(toStream());
+        XMLStreamReader streamReader = getStreamReader(reader);
+        assertTrue(streamReader instanceof UTF8StreamReader);
+        assertFoo(xmlObjects.fromXML(reader, Foo.class));
+        reader.close();
+
+        try (XMLReader next = factory.createReader(toStream())) {
+            assertSame(reader, next);
+            assertSame(streamReader, getStreamReader(next));
+            assertFoo(xmlObjects.fromXML(next, Foo.class));
+        }
+    }
+
+    @Test
+    public void createNewReaderWhileInUse() throws Exception {
+        XMLObjects xmlObjects = TestObjects.newContext();
+        XMLReaderFactory factory = XMLReaderFactory.newInstance(xmlObjects)
+                .reuseReaders(true)
+                .useBuiltInParser(true);
+
+        try (XMLReader reader = factory.createReader(toStream())) {
+            try (XMLReader next = factory.createReader(toStream())) {
+                assertNotSame(reader, next);
+                assertNotSame(getStreamReader(reader), getStreamReader(next));
+                assertFoo(xmlObjects.fromXML(next, Foo.class));
+            }
+
+            assertFoo(xmlObjects.fromXML(reader, Foo.class));
+        }
+
+        factory.reuseReaders(false);
+        XMLReader reader = factory.createReader(toStream());
+        reader.close();
+        try (XMLReader next = factory.createReader(toStream())) {
+            assertNotSame(reader, next);
+        }
+    }
+
+    @Test
+    public void dropStatefulBuildersOnReset() throws Exception {
+        XMLObjects xmlObjects = TestObjects.newContext();
+        XMLReaderFactory factory = XMLReaderFactory.newInstance(xmlObjects).reuseReaders(true);
+
+        ObjectBuilder<Foo> builder;
+        try (XMLReader reader = factory.createReader(toStream())) {
+            builder = reader.getOrCreateBuilder(StatefulBuilder.class);
+            assertSame(builder, reader.getOrCreateBuilder(StatefulBuilder.class));
+        }
+
+        try (XMLReader reader = factory.createReader(toStream())) {
+            ObjectBuilder<Foo> next = reader.getOrCreateBuilder(StatefulBuilder.class);
+            assertNotSame(builder, next);
+            assertSame(next, reader.getOrCreateBuilder(StatefulBuilder.class));
+        }
+    }
+
+    private XMLStreamReader getStreamReader(XMLReader reader) {
+        return ((DepthXMLStreamReader) reader.getStreamReader()).getReader();
+    }
+
+    private ByteArrayInputStream toStream() {
+        return new ByteArrayInputStream(XML.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Foo read(XMLObjects xmlObjects, XMLReaderFactory factory) throws Exception {
+        try (XMLReader reader = factory.createReader(toStream())) {
+            return xmlObjects.fromXML(reader, Foo.class);
+        }
+    }
+
+    static void assertFoo(Foo foo) {
+        assertEquals("1", foo.getId());
+        assertEquals("\u00e4", foo.getText());
+        assertEquals("2", ((Foo) foo.getChildren().get(0)).getId());
+    }
+
+    @Stateful
+    public static class StatefulBuilder implements ObjectBuilder<Foo> {
+
+        @Override
+        public Foo createObject(QName name, Object parent) {
+            return new Foo();
+        }
+    }
+}
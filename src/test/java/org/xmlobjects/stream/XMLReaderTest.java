@@ -0,0 +1,239 @@
+/*
+ * xml-objects - A simple and lightweight XML-to-object mapping library
+ * https://github.com/xmlobjects
+ *
+ * Copyright 2019-2020 Claus Nagel <claus.nagel@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.xmlobjects.stream;
+
+import org.junit.jupiter.api.Test;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.xmlobjects.XMLObjects;
+import org.xmlobjects.builder.ObjectBuildException;
+import org.xmlobjects.builder.ObjectBuilder;
+import org.xmlobjects.test.Foo;
+import org.xmlobjects.test.TestObjects;
+import org.xmlobjects.xml.Attributes;
+
+import javax.xml.namespace.QName;
+import java.io.StringReader;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class XMLReaderTest {
+
+    @Test
+    public void trackParentsOnBuildStack() throws Exception {
+        XMLObjects xmlObjects = TestObjects.newContext()
+                .registerBuilder(new ProbeBuilder(), TestObjects.NAMESPACE, "probe");
+
+        Foo foo = TestObjects.read(xmlObjects, "<foo xmlns=\"urn:test\" id=\"1\"><foo id=\"2\"><probe/></foo><probe/></foo>");
+        Foo child = (Foo) foo.getChildren().get(0);
+
+        Probe inner = (Probe) child.getChildren().get(0);
+        assertSame(child, inner.parent);
+        assertSame(inner, inner.self);
+        assertSame(child, inner.firstLevel);
+        assertSame(foo, inner.secondLevel);
+        assertSame(child, inner.ancestor);
+        assertNull(inner.outOfRange);
+
+        Probe outer = (Probe) foo.getChildren().get(1);
+        assertSame(foo, outer.parent);
+        assertSame(foo, outer.ancestor);
+        assertNull(outer.secondLevel);
+    }
+
+    @Test
+    public void growBuildStack() throws Exception {
+        XMLObjects xmlObjects = TestObjects.newContext()
+                .registerBuilder(new ProbeBuilder(), TestObjects.NAMESPACE, "probe");
+
+        int depth = 40;
+        StringBuilder xml = new StringBuilder();
+        for (int i = 0; i < depth; i++)
+            xml.append("<foo xmlns=\"urn:test\" id=\"").append(i).append("\">");
+
+        xml.append("<probe/>");
+        for (int i = 0; i < depth; i++)
+            xml.append("</foo>");
+
+        try (XMLReader reader = TestObjects.createReader(xmlObjects, xml.toString())) {
+            Foo foo = xmlObjects.fromXML(reader, Foo.class);
+            assertNull(reader.getParent());
+
+            Foo innermost = foo;
+            for (int i = 1; i < depth; i++)
+                innermost = (Foo) innermost.getChildren().get(0);
+
+            Probe probe = (Probe) innermost.getChildren().get(0);
+            assertSame(innermost, probe.parent);
+            assertEquals(String.valueOf(depth - 2), ((Foo) probe.secondLevel).getId());
+        }
+    }
+
+    @Test
+    public void skipUnconsumedSubtrees() throws Exception {
+        XMLObjects xmlObjects = TestObjects.newContext();
+        Foo foo = TestObjects.read(xmlObjects, "<foo xmlns=\"urn:test\" id=\"1\">" +
+                "<unknown xmlns:x=\"urn:x\"><x:a><foo id=\"skipped\"/><x:b>text</x:b></x:a><x:c/></unknown>" +
+                "<text>a</text>" +
+                "<unknown/>" +
+                "<foo id=\"2\"/>" +
+                "</foo>");
+
+        assertEquals("1", foo.getId());
+        assertEquals("a", foo.getText());
+        assertEquals(1, foo.getChildren().size());
+        assertEquals("2", ((Foo) foo.getChildren().get(0)).getId());
+    }
+
+    @Test
+    public void skipElement() throws Exception {
+        XMLObjects xmlObjects = TestObjects.newContext();
+        String xml = "<root xmlns=\"urn:test\"><a><b><c/></b><b/></a><foo id=\"1\"/></root>";
+
+        try (XMLReader reader = TestObjects.createReader(xmlObjects, xml)) {
+            reader.nextTag();
+            assertEquals(EventType.START_ELEMENT, reader.nextTag());
+            assertEquals(new QName(TestObjects.NAMESPACE, "a"), reader.getName());
+            assertEquals(2, reader.getDepth());
+
+            reader.skipElement();
+            assertTrue(reader.getStreamReader().isEndElement());
+            assertEquals(new QName(TestObjects.NAMESPACE, "a"), reader.getName());
+            assertEquals(1, reader.getDepth());
+
+            assertEquals(EventType.START_ELEMENT, reader.nextTag());
+            assertEquals("1", reader.getObject(Foo.class).getId());
+            assertThrows(XMLReadException.class, reader::skipElement);
+        }
+    }
+
+    @Test
+    public void readTextIntoSink() throws Exception {
+        XMLObjects xmlObjects = TestObjects.newContext();
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 20000; i++)
+            expected.append((char) ('a' + i % 26));
+
+        String xml = "<text xmlns=\"urn:test\">" + expected + " &amp; <![CDATA[<cdata>]]>&#x41;</text>";
+        try (XMLReader reader = TestObjects.createReader(xmlObjects, xml)) {
+            reader.nextTag();
+            StringBuilder text = new StringBuilder();
+            reader.readText(text::append);
+
+            assertEquals(expected + " & <cdata>A", text.toString());
+            assertTrue(reader.getStreamReader().isEndElement());
+        }
+    }
+
+    @Test
+    public void propagateSinkFailures() throws Exception {
+        XMLObjects xmlObjects = TestObjects.newContext();
+        try (XMLReader reader = TestObjects.createReader(xmlObjects, "<text xmlns=\"urn:test\">abc</text>")) {
+            reader.nextTag();
+            assertThrows(ObjectBuildException.class, () -> reader.readText((characters, start, length) -> {
+                throw new ObjectBuildException("Rejected text.");
+            }));
+        }
+    }
+
+    @Test
+    public void buildDOMElements() throws Exception {
+        XMLObjects xmlObjects = TestObjects.newContext();
+        String xml = "<root xmlns=\"urn:test\" xmlns:x=\"urn:x\">" +
+                "<x:a x:id=\"1\" name=\"n\">text<x:b xmlns:y=\"urn:y\" y:attr=\"v\"/><!--comment--><?pi data?>" +
+                "<![CDATA[<cdata>]]><c/></x:a><foo id=\"1\"/></root>";
+
+        try (XMLReader reader = XMLReaderFactory.newInstance(xmlObjects)
+                .reuseDOMDocument(true)
+                .createReader(new StringReader(xml))) {
+            reader.nextTag();
+            reader.nextTag();
+            Element a = reader.getDOMElement();
+
+            assertTrue(reader.getStreamReader().isEndElement());
+            assertEquals("urn:x", a.getNamespaceURI());
+            assertEquals("a", a.getLocalName());
+            assertEquals("x", a.getPrefix());
+            assertEquals("1", a.getAttributeNS("urn:x", "id"));
+            assertEquals("n", a.getAttributeNS(null, "name"));
+            assertEquals("text<cdata>", a.getTextContent());
+
+            Element b = (Element) a.getElementsByTagNameNS("urn:x", "b").item(0);
+            assertEquals("v", b.getAttributeNS("urn:y", "attr"));
+            assertEquals(1, a.getElementsByTagNameNS(TestObjects.NAMESPACE, "c").getLength());
+            assertEquals(Node.COMMENT_NODE, b.getNextSibling().getNodeType());
+            assertEquals(Node.PROCESSING_INSTRUCTION_NODE, b.getNextSibling().getNextSibling().getNodeType());
+
+            assertEquals(EventType.START_ELEMENT, reader.nextTag());
+            assertEquals("1", reader.getObject(Foo.class).getId());
+        }
+    }
+
+    @Test
+    public void createDOMAsFallback() throws Exception {
+        XMLObjects xmlObjects = TestObjects.newContext();
+        String xml = "<foo xmlns=\"urn:test\" id=\"1\"><x:a xmlns:x=\"urn:x\" x:id=\"2\">v</x:a><foo id=\"3\"/></foo>";
+
+        try (XMLReader reader = XMLReaderFactory.newInstance(xmlObjects)
+                .createDOMAsFallback(true)
+                .createReader(new StringReader(xml))) {
+            Foo foo = xmlObjects.fromXML(reader, Foo.class);
+            assertEquals(2, foo.getChildren().size());
+
+            Element element = (Element) foo.getChildren().get(0);
+            assertEquals("urn:x", element.getNamespaceURI());
+            assertEquals("2", element.getAttributeNS("urn:x", "id"));
+            assertEquals("3", ((Foo) foo.getChildren().get(1)).getId());
+
+            Foo copy = TestObjects.read(xmlObjects, TestObjects.write(xmlObjects, foo));
+            assertEquals("1", copy.getId());
+            assertEquals("3", ((Foo) copy.getChildren().get(0)).getId());
+        }
+    }
+
+    public static class Probe {
+        Object parent;
+        Object self;
+        Object firstLevel;
+        Object secondLevel;
+        Object outOfRange;
+        Foo ancestor;
+    }
+
+    public static class ProbeBuilder implements ObjectBuilder<Probe> {
+
+        @Override
+        public Probe createObject(QName name, Object parent) {
+            Probe probe = new Probe();
+            probe.parent = parent;
+            return probe;
+        }
+
+        @Override
+        public void initializeObject(Probe object, QName name, Attributes attributes, XMLReader reader) {
+            object.self = reader.getParent();
+            object.firstLevel = reader.getParent(1);
+            object.secondLevel = reader.getParent(2);
+            object.outOfRange = reader.getParent(100);
+            object.ancestor = reader.getAncestor(Foo.class);
+        }
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * xml-objects - A simple and lightweight XML-to-object mapping library
+ * https://github.com/xmlobjects
+ *
+ * Copyright 2019-2020 Claus Nagel <claus.nagel@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.xmlobjects.stream;
+
+import org.junit.jupiter.api.Test;
+import org.xmlobjects.XMLObjects;
+import org.xmlobjects.test.Foo;
+import org.xmlobjects.test.TestObjects;
+import org.xmlobjects.xml.Element;
+import org.xmlobjects.xml.GenericElement;
+import org.xmlobjects.xml.MixedContent;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class XMLWriterTest {
+
+    @Test
+    public void writeGenericElementWithUsedNamespacesOnly() throws Exception {
+        XMLObjects xmlObjects = TestObjects.newContext();
+        String xml = "<foo xmlns=\"urn:test\" xmlns:a=\"urn:a\" xmlns:b=\"urn:b\" xmlns:c=\"urn:c\" " +
+                "xmlns:d=\"urn:d\" xmlns:unused=\"urn:unused\" id=\"1\">" +
+                "<a:x b:attr=\"1\" type=\"c:T\"><a:y xmlns:e=\"urn:e\">v</a:y></a:x>" +
+                "</foo>";
+
+        Foo foo;
+        try (XMLReader reader = XMLReaderFactory.newInstance(xmlObjects)
+                .createGenericElementAsFallback(true)
+                .createReader(new StringReader(xml))) {
+            foo = xmlObjects.fromXML(reader, Foo.class);
+        }
+
+        assertTrue(foo.getChildren().get(0) instanceof GenericElement);
+
+        String output = TestObjects.write(xmlObjects, foo);
+        assertTrue(output.contains("\"urn:a\""));
+        assertTrue(output.contains("\"urn:b\""));
+        assertTrue(output.contains("\"urn:c\""));
+        assertTrue(output.contains("xmlns:e=\"urn:e\""));
+        assertFalse(output.contains("urn:d"));
+        assertFalse(output.contains("urn:unused"));
+
+        Foo copy;
+        try (XMLReader reader = XMLReaderFactory.newInstance(xmlObjects)
+                .createGenericElementAsFallback(true)
+                .createReader(new StringReader(output))) {
+            copy = xmlObjects.fromXML(reader, Foo.class);
+        }
+
+        org.w3c.dom.Element element = ((GenericElement) copy.getChildren().get(0)).toDOMElement();
+        assertEquals("urn:a", element.getNamespaceURI());
+        assertEquals("1", element.getAttributeNS("urn:b", "attr"));
+        assertEquals("urn:c", element.lookupNamespaceURI("c"));
+        assertEquals("v", element.getTextContent());
+    }
+
+    @Test
+    public void writeMixedContentValue() throws Exception {
+        XMLObjects xmlObjects = TestObjects.newContext();
+        String xml = "<p xmlns=\"urn:test\">a <b id=\"1\">bold</b> &amp; <i>c</i>d</p>";
+
+        MixedContent mixedContent;
+        String expected;
+        try (XMLReader reader = TestObjects.createReader(xmlObjects, xml)) {
+            reader.nextTag();
+            mixedContent = reader.getMixedContentValue();
+            assertTrue(reader.getStreamReader().isEndElement());
+        }
+
+        try (XMLReader reader = TestObjects.createReader(xmlObjects, xml)) {
+            reader.nextTag();
+            expected = reader.getMixedContent();
+        }
+
+        assertFalse(mixedContent.isEmpty());
+        assertEquals(normalize(expected), normalize(mixedContent.toString()));
+        assertEquals("a <b id=\"1\">bold</b> &amp; <i>c</i>d", normalize(expected));
+
+        StringWriter output = new StringWriter();
+        try (XMLWriter writer = TestObjects.createWriter(xmlObjects, output)) {
+            writer.writeStartDocument();
+            writer.writeStartElement(Element.of(TestObjects.NAMESPACE, "p"));
+            writer.writeMixedContent(mixedContent);
+            writer.writeEndElement();
+            writer.writeEndDocument();
+        }
+
+        try (XMLReader reader = TestObjects.createReader(xmlObjects, output.toString())) {
+            reader.nextTag();
+            assertEquals(normalize(expected), normalize(reader.getMixedContentValue().toString()));
+        }
+    }
+
+    private String normalize(String mixedContent) {
+        return mixedContent.replaceAll(" xmlns(:\\w+)?=\"[^\"]*\"", "").replaceAll("(</?)\\w+:", "$1");
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * xml-objects - A simple and lightweight XML-to-object mapping library
+ * https://github.com/xmlobjects
+ *
+ * Copyright 2019-2020 Claus Nagel <claus.nagel@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.xmlobjects.test;
+
+import org.xmlobjects.builder.ObjectBuildException;
+import org.xmlobjects.builder.ObjectBuilder;
+import org.xmlobjects.stream.BuildResult;
+import org.xmlobjects.stream.XMLReadException;
+import org.xmlobjects.stream.XMLReader;
+import org.xmlobjects.xml.Attributes;
+
+import javax.xml.namespace.QName;
+
+public class FooBuilder implements ObjectBuilder<Foo> {
+
+    @Override
+    public Foo createObject(QName name, Object parent) {
+        return new Foo();
+    }
+
+    @Override
+    public void initializeObject(Foo object, QName name, Attributes attributes, XMLReader reader) {
+        attributes.getValue("id").ifPresent(object::setId);
+    }
+
+    @Override
+    public void buildChildObject(Foo object, QName name, Attributes attributes, XMLReader reader) throws ObjectBuildException, XMLReadException {
+        if (TestObjects.NAMESPACE.equals(name.getNamespaceURI()) && "text".equals(name.getLocalPart()))
+            object.setText(reader.getTextContent().get());
+        else {
+            BuildResult<Object> result = reader.getObjectOrDOMElement(Object.class);
+            if (result.isSetObject())
+                object.getChildren().add(result.getObject());
+            else if (result.isSetDOMElement())
+                object.getChildren().add(result.getDOMElement());
+            else if (result.isSetGenericElement())
+                object.getChildren().add(result.getGenericElement());
+        }
+    }
+}
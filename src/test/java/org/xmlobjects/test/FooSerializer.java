@@ -0,0 +1,58 @@
+/*
+ * xml-objects - A simple and lightweight XML-to-object mapping library
+ * https://github.com/xmlobjects
+ *
+ * Copyright 2019-2020 Claus Nagel <claus.nagel@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.xmlobjects.test;
+
+import org.xmlobjects.serializer.ObjectSerializeException;
+import org.xmlobjects.serializer.ObjectSerializer;
+import org.xmlobjects.stream.XMLWriteException;
+import org.xmlobjects.stream.XMLWriter;
+import org.xmlobjects.xml.Element;
+import org.xmlobjects.xml.GenericElement;
+import org.xmlobjects.xml.Namespaces;
+
+public class FooSerializer implements ObjectSerializer<Foo> {
+
+    @Override
+    public Element createElement(Foo object, Namespaces namespaces) {
+        return Element.of(TestObjects.NAMESPACE, "foo");
+    }
+
+    @Override
+    public void initializeElement(Element element, Foo object, Namespaces namespaces, XMLWriter writer) {
+        if (object.getId() != null)
+            element.addAttribute("id", object.getId());
+    }
+
+    @Override
+    public void writeChildElements(Foo object, Namespaces namespaces, XMLWriter writer) throws ObjectSerializeException, XMLWriteException {
+        if (object.getText() != null)
+            writer.writeElement(Element.of(TestObjects.NAMESPACE, "text").addTextContent(object.getText()));
+
+        for (Object child : object.getChildren()) {
+            if (child instanceof org.w3c.dom.Element)
+                writer.writeDOMElement((org.w3c.dom.Element) child);
+            else if (child instanceof GenericElement)
+                writer.writeGenericElement((GenericElement) child);
+            else
+                writer.writeElement(null, child, namespaces);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * xml-objects - A simple and lightweight XML-to-object mapping library
+ * https://github.com/xmlobjects
+ *
+ * Copyright 2019-2020 Claus Nagel <claus.nagel@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.xmlobjects.test;
+
+import org.xmlobjects.XMLObjects;
+import org.xmlobjects.XMLObjectsException;
+import org.xmlobjects.stream.XMLReadException;
+import org.xmlobjects.stream.XMLReader;
+import org.xmlobjects.stream.XMLReaderFactory;
+import org.xmlobjects.stream.XMLWriteException;
+import org.xmlobjects.stream.XMLWriter;
+import org.xmlobjects.stream.XMLWriterFactory;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+
+public class TestObjects {
+    public static final String NAMESPACE = "urn:test";
+
+    public static XMLObjects newContext() throws XMLObjectsException {
+        return XMLObjects.newInstance()
+                .registerBuilder(new FooBuilder(), NAMESPACE, "foo")
+                .registerSerializer(new FooSerializer(), Foo.class, NAMESPACE);
+    }
+
+    public static XMLReader createReader(XMLObjects xmlObjects, String xml) throws XMLReadException {
+        return XMLReaderFactory.newInstance(xmlObjects).createReader(new StringReader(xml));
+    }
+
+    public static Foo read(XMLObjects xmlObjects, String xml) throws Exception {
+        try (XMLReader reader = createReader(xmlObjects, xml)) {
+            return xmlObjects.fromXML(reader, Foo.class);
+        }
+    }
+
+    public static String write(XMLObjects xmlObjects, Object object) throws Exception {
+        StringWriter output = new StringWriter();
+        try (XMLWriter writer = createWriter(xmlObjects, output)) {
+            xmlObjects.toXML(writer, object, NAMESPACE);
+        }
+
+        return output.toString();
+    }
+
+    public static XMLWriter createWriter(XMLObjects xmlObjects, StringWriter output) throws XMLWriteException {
+        return XMLWriterFactory.newInstance(xmlObjects).createWriter(output).writeXMLDeclaration(false);
+    }
+}
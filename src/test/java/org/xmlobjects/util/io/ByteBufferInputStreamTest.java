@@ -0,0 +1,155 @@
+/*
+ * xml-objects - A simple and lightweight XML-to-object mapping library
+ * https://github.com/xmlobjects
+ *
+ * Copyright 2019-2020 Claus Nagel <claus.nagel@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.xmlobjects.util.io;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ByteBufferInputStreamTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void readAcrossBuffers() throws Exception {
+        ByteBufferInputStream stream = new ByteBufferInputStream(
+                wrap("abc"), wrap(""), wrap("def"), wrap("g"));
+
+        assertEquals('a', stream.read());
+        assertEquals(2, stream.available());
+        assertEquals("bcdefg", readAll(stream));
+        assertEquals(-1, stream.read());
+        assertEquals(-1, stream.read(new byte[4], 0, 4));
+        assertEquals(0, stream.available());
+    }
+
+    @Test
+    public void keepBufferPositions() throws Exception {
+        ByteBuffer buffer = wrap("xxabc");
+        buffer.position(2);
+
+        ByteBufferInputStream stream = new ByteBufferInputStream(buffer);
+        assertEquals("abc", readAll(stream));
+        assertEquals(2, buffer.position());
+    }
+
+    @Test
+    public void skipAcrossBuffers() throws Exception {
+        ByteBufferInputStream stream = new ByteBufferInputStream(wrap("abc"), wrap("def"));
+        assertEquals(4, stream.skip(4));
+        assertEquals("ef", readAll(stream));
+        assertEquals(0, stream.skip(1));
+    }
+
+    @Test
+    public void resetWithinBuffer() throws Exception {
+        ByteBufferInputStream stream = new ByteBufferInputStream(wrap("abcdef"));
+        assertTrue(stream.markSupported());
+        assertThrows(IOException.class, stream::reset);
+
+        assertEquals('a', stream.read());
+        stream.mark(3);
+        assertEquals("bcd", read(stream, 3));
+        stream.reset();
+        assertEquals("bcdef", readAll(stream));
+    }
+
+    @Test
+    public void resetAcrossBuffers() throws Exception {
+        ByteBuffer first = wrap("xxabc");
+        first.position(2);
+        ByteBufferInputStream stream = new ByteBufferInputStream(first, wrap("de"), wrap("fgh"));
+
+        assertEquals('a', stream.read());
+        stream.mark(16);
+        assertEquals("bcdefg", read(stream, 6));
+        stream.reset();
+        assertEquals("bcdefgh", readAll(stream));
+
+        stream.close();
+        assertEquals(-1, stream.read());
+        assertThrows(IOException.class, stream::reset);
+    }
+
+    @Test
+    public void invalidateMarkAfterReadLimit() throws Exception {
+        ByteBufferInputStream stream = new ByteBufferInputStream(wrap("abc"), wrap("def"), wrap("ghi"));
+        stream.mark(2);
+        assertEquals("abcdefg", read(stream, 7));
+        assertThrows(IOException.class, stream::reset);
+        assertEquals("hi", readAll(stream));
+    }
+
+    @Test
+    public void mapFile() throws Exception {
+        Path file = tempDir.resolve("data.txt");
+        Files.write(file, "mapped content".getBytes(StandardCharsets.UTF_8));
+
+        try (ByteBufferInputStream stream = ByteBufferInputStream.map(file)) {
+            stream.mark(6);
+            assertEquals("mapped", read(stream, 6));
+            stream.reset();
+            assertEquals("mapped content", readAll(stream));
+        }
+
+        Path empty = Files.createFile(tempDir.resolve("empty.txt"));
+        try (ByteBufferInputStream stream = ByteBufferInputStream.map(empty)) {
+            assertEquals(-1, stream.read());
+        }
+    }
+
+    private ByteBuffer wrap(String content) {
+        return ByteBuffer.wrap(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String read(InputStream stream, int length) throws IOException {
+        byte[] bytes = new byte[length];
+        int offset = 0;
+        while (offset < length) {
+            int read = stream.read(bytes, offset, length - offset);
+            if (read == -1)
+                break;
+
+            offset += read;
+        }
+
+        return new String(bytes, 0, offset, StandardCharsets.UTF_8);
+    }
+
+    private String readAll(InputStream stream) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        byte[] buffer = new byte[2];
+        int read;
+        while ((read = stream.read(buffer)) != -1)
+            output.write(buffer, 0, read);
+
+        return new String(output.toByteArray(), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ * xml-objects - A simple and lightweight XML-to-object mapping library
+ * https://github.com/xmlobjects
+ *
+ * Copyright 2019-2020 Claus Nagel <claus.nagel@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.xmlobjects.util.io;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReadAheadInputStreamTest {
+
+    @Test
+    public void readAheadInChunks() throws Exception {
+        byte[] bytes = new byte[100000];
+        new Random(42).nextBytes(bytes);
+
+        try (ReadAheadInputStream stream = new ReadAheadInputStream(new ByteArrayInputStream(bytes), 1000, 3)) {
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            output.write(stream.read());
+
+            byte[] buffer = new byte[777];
+            int read;
+            while ((read = stream.read(buffer, 0, buffer.length)) != -1)
+                output.write(buffer, 0, read);
+
+            assertArrayEquals(bytes, output.toByteArray());
+            assertEquals(-1, stream.read());
+            assertEquals(0, stream.read(buffer, 0, 0));
+        }
+    }
+
+    @Test
+    public void propagateErrors() throws Exception {
+        IOException failure = new IOException("Failed to read.");
+        InputStream failing = new InputStream() {
+            int count;
+
+            @Override
+            public int read() throws IOException {
+                throw failure;
+            }
+
+            @Override
+            public int read(byte[] bytes, int offset, int length) throws IOException {
+                if (count++ == 3)
+                    throw failure;
+
+                bytes[offset] = 'a';
+                return 1;
+            }
+        };
+
+        try (ReadAheadInputStream stream = new ReadAheadInputStream(failing, 4, 2)) {
+            IOException e = assertThrows(IOException.class, () -> {
+                while (stream.read() != -1) ;
+            });
+
+            assertSame(failure, e.getCause());
+        }
+    }
+
+    @Test
+    public void stopReadingAheadOnClose() throws Exception {
+        long threads = countReadAheadThreads();
+        ClosingInputStream endless = new ClosingInputStream();
+        ReadAheadInputStream stream = new ReadAheadInputStream(endless, 16, 2);
+
+        assertEquals('a', stream.read());
+        assertEquals(threads + 1, countReadAheadThreads());
+
+        stream.close();
+        assertTrue(endless.closed);
+        assertEquals(threads, countReadAheadThreads());
+        assertThrows(IOException.class, stream::read);
+        stream.close();
+    }
+
+    @Test
+    public void unblockPendingReadOnClose() throws Exception {
+        long threads = countReadAheadThreads();
+        BlockingInputStream blocking = new BlockingInputStream();
+        ReadAheadInputStream stream = new ReadAheadInputStream(blocking, 16, 2);
+
+        assertTrue(blocking.reading.await(10, TimeUnit.SECONDS));
+        assertTimeoutPreemptively(Duration.ofSeconds(10), stream::close);
+        assertEquals(threads, countReadAheadThreads());
+    }
+
+    private long countReadAheadThreads() {
+        return Thread.getAllStackTraces().keySet().stream()
+                .filter(thread -> thread.getName().equals("xml-objects-read-ahead") && thread.isAlive())
+                .count();
+    }
+
+    private static class BlockingInputStream extends InputStream {
+        final CountDownLatch reading = new CountDownLatch(1);
+        final CountDownLatch closed = new CountDownLatch(1);
+
+        @Override
+        public int read() throws IOException {
+            reading.countDown();
+
+            // like a socket read, ignore interrupts and only return once the stream is closed
+            while (true) {
+                try {
+                    closed.await();
+                    throw new IOException("The stream has been closed.");
+                } catch (InterruptedException e) {
+                    //
+                }
+            }
+        }
+
+        @Override
+        public void close() {
+            closed.countDown();
+        }
+    }
+
+    private static class ClosingInputStream extends InputStream {
+        volatile boolean closed;
+
+        @Override
+        public int read() throws IOException {
+            if (closed)
+                throw new IOException("The stream has been closed.");
+
+            return 'a';
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) throws IOException {
+            if (closed)
+                throw new IOException("The stream has been closed.");
+
+            Arrays.fill(bytes, offset, offset + length, (byte) 'a');
+            return length;
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+}
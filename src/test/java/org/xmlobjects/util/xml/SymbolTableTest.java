@@ -0,0 +1,133 @@
+/*
+ * xml-objects - A simple and lightweight XML-to-object mapping library
+ * https://github.com/xmlobjects
+ *
+ * Copyright 2019-2020 Claus Nagel <claus.nagel@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.xmlobjects.util.xml;
+
+import org.junit.jupiter.api.Test;
+import org.xmlobjects.XMLObjects;
+import org.xmlobjects.stream.EventType;
+import org.xmlobjects.stream.XMLReader;
+import org.xmlobjects.test.Foo;
+import org.xmlobjects.test.FooBuilder;
+import org.xmlobjects.test.TestObjects;
+import org.xmlobjects.util.xml.SymbolTable.Symbol;
+
+import javax.xml.XMLConstants;
+import javax.xml.namespace.QName;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SymbolTableTest {
+
+    @Test
+    public void internSymbols() {
+        SymbolTable table = new SymbolTable();
+        Symbol symbol = table.get("urn:a", "a", "x");
+
+        assertSame(symbol, table.get("urn:a", "a", "x"));
+        assertNotSame(symbol, table.get("urn:a", "a", "y"));
+        assertNotSame(symbol, table.get("urn:b", "a", "x"));
+        assertEquals(new QName("urn:a", "a"), symbol.getName());
+        assertEquals("x", symbol.getName().getPrefix());
+        assertEquals(new QName("a"), table.get(null, "a", null).getName());
+        assertEquals(XMLConstants.DEFAULT_NS_PREFIX, table.get(null, "a", null).getName().getPrefix());
+    }
+
+    @Test
+    public void keepSymbolsAcrossRehash() {
+        SymbolTable table = new SymbolTable();
+        Symbol[] symbols = new Symbol[1000];
+        for (int i = 0; i < symbols.length; i++)
+            symbols[i] = table.get("urn:a", "e" + i, "");
+
+        for (int i = 0; i < symbols.length; i++)
+            assertSame(symbols[i], table.get("urn:a", "e" + i, ""));
+    }
+
+    @Test
+    public void clearWhenFull() {
+        SymbolTable table = new SymbolTable();
+        for (int i = 0; i < 10000; i++) {
+            Symbol symbol = table.get("urn:a", "e" + i, "");
+            assertEquals("e" + i, symbol.getName().getLocalPart());
+            assertSame(symbol, table.get("urn:a", "e" + i, ""));
+        }
+    }
+
+    @Test
+    public void hideValuesFromOtherOwners() {
+        Symbol symbol = new SymbolTable().get("urn:a", "a", "");
+        Object owner = new Object();
+
+        assertFalse(symbol.hasValue(owner));
+        symbol.setValue(owner, "value");
+        assertTrue(symbol.hasValue(owner));
+        assertEquals("value", symbol.getValue(owner));
+
+        Object other = new Object();
+        assertFalse(symbol.hasValue(other));
+        assertNull(symbol.getValue(other));
+        assertFalse(symbol.hasValue(null));
+        assertThrows(NullPointerException.class, () -> symbol.setValue(null, "value"));
+
+        symbol.setValue(other, "other");
+        assertFalse(symbol.hasValue(owner));
+        assertNull(symbol.getValue(owner));
+    }
+
+    @Test
+    public void ignoreForeignValuesWhenResolvingBuilders() throws Exception {
+        XMLObjects xmlObjects = TestObjects.newContext();
+        String xml = "<root xmlns=\"urn:test\"><foo id=\"1\"/><foo id=\"2\"/></root>";
+
+        try (XMLReader reader = TestObjects.createReader(xmlObjects, xml)) {
+            reader.nextTag();
+            reader.nextTag();
+            Symbol symbol = reader.getSymbol();
+            assertTrue(xmlObjects.getBuilder(symbol, Foo.class) instanceof FooBuilder);
+
+            symbol.setValue(new Object(), null);
+            assertTrue(xmlObjects.getBuilder(symbol, Foo.class) instanceof FooBuilder);
+            assertEquals("1", reader.getObject(Foo.class).getId());
+        }
+    }
+
+    @Test
+    public void readManyDistinctNames() throws Exception {
+        XMLObjects xmlObjects = TestObjects.newContext();
+        StringBuilder xml = new StringBuilder("<root xmlns=\"urn:test\">");
+        for (int i = 0; i < 5000; i++)
+            xml.append("<e").append(i).append("/>");
+
+        xml.append("</root>");
+
+        int count = 0;
+        try (XMLReader reader = TestObjects.createReader(xmlObjects, xml.toString())) {
+            while (reader.hasNext()) {
+                if (reader.nextTag() == EventType.START_ELEMENT && reader.getDepth() == 2) {
+                    assertEquals(new QName(TestObjects.NAMESPACE, "e" + count++), reader.getSymbol().getName());
+                    assertNull(reader.getObject(Object.class));
+                }
+            }
+        }
+
+        assertEquals(5000, count);
+    }
+}
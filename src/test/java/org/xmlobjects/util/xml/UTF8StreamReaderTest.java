@@ -0,0 +1,271 @@
+/*
+ * xml-objects - A simple and lightweight XML-to-object mapping library
+ * https://github.com/xmlobjects
+ *
+ * Copyright 2019-2020 Claus Nagel <claus.nagel@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.xmlobjects.util.xml;
+
+import org.junit.jupiter.api.Test;
+import org.xmlobjects.XMLObjects;
+import org.xmlobjects.stream.XMLReader;
+import org.xmlobjects.stream.XMLReaderFactory;
+import org.xmlobjects.test.Foo;
+import org.xmlobjects.test.TestObjects;
+
+import javax.xml.stream.Location;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UTF8StreamReaderTest {
+
+    @Test
+    public void readNamespaces() throws Exception {
+        assertSameEvents("<a:root xmlns:a=\"urn:a\" xmlns=\"urn:d\">" +
+                "<child a:x=\"1\" y=\"2\"><a:inner xmlns:a=\"urn:b\" a:z=\"3\"/></child>" +
+                "<x xmlns=\"\"><a:y/></x></a:root>");
+    }
+
+    @Test
+    public void readAttributes() throws Exception {
+        assertSameEvents("<root a=\"x\r\ny\" b='q&quot;&lt;&gt;' c=\"t\tab&#10;&#x9;\" d='\"' e=\"'\" f=\"\"/>");
+    }
+
+    @Test
+    public void normalizeLineBreaks() throws Exception {
+        assertSameEvents("<r>a\r\nb\rc\n<e>\r</e>\r\n</r>");
+    }
+
+    @Test
+    public void resolveReferences() throws Exception {
+        assertSameEvents("<r>&lt;&gt;&amp;&apos;&quot;&#65;&#x42;&#x1F600;<e>x&amp;y</e></r>");
+    }
+
+    @Test
+    public void reportCDATASections() throws Exception {
+        String xml = "<r>a<![CDATA[<b>&amp;\r\n]]>c<![CDATA[]]></r>";
+        assertSameEvents(xml);
+
+        XMLStreamReader reader = createReader(xml);
+        assertEquals(XMLStreamConstants.START_ELEMENT, reader.next());
+        assertEquals(XMLStreamConstants.CHARACTERS, reader.next());
+        assertEquals(XMLStreamConstants.CDATA, reader.next());
+        assertEquals("<b>&amp;\n", reader.getText());
+        assertTrue(reader.hasText());
+        assertFalse(reader.isCharacters());
+    }
+
+    @Test
+    public void readCommentsAndProcessingInstructions() throws Exception {
+        assertSameEvents("<?xml version=\"1.0\" encoding=\"UTF-8\"?><!--before--><?pi data?>" +
+                "<r><!-- in\r\n --><?t  x y ?></r><!--after-->");
+    }
+
+    @Test
+    public void readBracketsAndDashes() throws Exception {
+        assertSameEvents("<a>]]</a>");
+        assertSameEvents("<a>x]]y]>z]</a>");
+        assertSameEvents("<a><!-- a - b --><!----><![CDATA[]]]]><b>]</b>\t\n</a>");
+        assertSameEvents("<a>" + repeat('x', 65533) + "]]</a>");
+    }
+
+    @Test
+    public void readEmptyElements() throws Exception {
+        assertSameEvents("<r><e/><e></e><f a=\"1\" /><g\n/></r>");
+    }
+
+    @Test
+    public void readNonASCIIContent() throws Exception {
+        assertSameEvents("<r \u00e4=\"\u00f6\u20ac\"><\u00fc\u00df:x\u00b7y xmlns:\u00fc\u00df=\"urn:\u00e9\">" +
+                "\u20ac\uD83D\uDE00</\u00fc\u00df:x\u00b7y></r>");
+    }
+
+    @Test
+    public void rejectMalformedInput() throws Exception {
+        String[] documents = {
+                "<r><a></r>",
+                "<r a='1' a='2'/>",
+                "<r xmlns:p='urn:p' xmlns:q='urn:p' p:a='1' q:a='2'/>",
+                "<r xmlns:a='urn:a' xmlns:a='urn:b'/>",
+                "<1r/>",
+                "<r><-x/></r>",
+                "<r a\"b='1'/>",
+                "<r><a:b:c xmlns:a='urn:a'/></r>",
+                "<r:/>",
+                "<p:r/>",
+                "<r>&foo;</r>",
+                "<r>&#xZZ;</r>",
+                "<r>",
+                "<r/><r/>",
+                "<r/>text",
+                "<r a=1/>",
+                "<r a='<'/>",
+                "<r><?xml version='1.0'?></r>",
+                "<r><!-- x",
+                "<r><![CDATA[x</r>",
+                "<a>]]></a>",
+                "<a>x]]]>y</a>",
+                "<a>" + repeat('x', 65534) + "]]></a>",
+                "<a>\u0001</a>",
+                "<a>x\u001fy</a>",
+                "<a b='\u0001'/>",
+                "<a><![CDATA[\u0001]]></a>",
+                "<a>&#1;</a>",
+                "<a>&#xFFFE;</a>",
+                "<a><!-- a -- b --></a>",
+                "<a><!-- a ---></a>",
+                "<a><!-----></a>",
+                ""
+        };
+
+        for (String xml : documents) {
+            assertThrows(XMLStreamException.class, () -> readAll(XMLInputFactory.newInstance().createXMLStreamReader(toStream(xml))), xml);
+            assertThrows(XMLStreamException.class, () -> readAll(createReader(xml)), xml);
+        }
+    }
+
+    @Test
+    public void trackLocation() throws Exception {
+        String xml = "<r>\n  <a>\r\n<\u00e4 x='1'>\n<b/></\u00e4></a></r>";
+        XMLStreamReader expected = createJDKReader(xml);
+        XMLStreamReader actual = createReader(xml);
+        while (expected.hasNext()) {
+            assertEquals(expected.next(), actual.next());
+            if (expected.isStartElement()) {
+                Location location = actual.getLocation();
+                assertEquals(expected.getLocation().getLineNumber(), location.getLineNumber(), expected.getLocalName());
+                assertEquals(expected.getLocation().getColumnNumber(), location.getColumnNumber(), expected.getLocalName());
+            }
+        }
+
+        XMLStreamReader reader = createReader("<r>\r<a/></r>");
+        reader.nextTag();
+        reader.nextTag();
+        assertEquals(2, reader.getLocation().getLineNumber());
+        assertEquals(5, reader.getLocation().getColumnNumber());
+
+        XMLStreamException e = assertThrows(XMLStreamException.class, () -> readAll(createReader("<r>\n\n  <a></b></r>")));
+        assertEquals(3, e.getLocation().getLineNumber());
+    }
+
+    @Test
+    public void selectBuiltInParser() throws Exception {
+        XMLObjects xmlObjects = TestObjects.newContext();
+        XMLReaderFactory factory = XMLReaderFactory.newInstance(xmlObjects).useBuiltInParser(true);
+        String xml = "<foo xmlns=\"urn:test\" id=\"1\"><text>a<![CDATA[<b>]]>c</text></foo>";
+
+        try (XMLReader reader = factory.createReader(toStream(xml))) {
+            assertTrue(((DepthXMLStreamReader) reader.getStreamReader()).getReader() instanceof UTF8StreamReader);
+            Foo foo = xmlObjects.fromXML(reader, Foo.class);
+            assertEquals("1", foo.getId());
+            assertEquals("a<b>c", foo.getText());
+        }
+
+        byte[] utf16 = xml.getBytes(StandardCharsets.UTF_16);
+        try (XMLReader reader = factory.createReader(new ByteArrayInputStream(utf16))) {
+            assertFalse(((DepthXMLStreamReader) reader.getStreamReader()).getReader() instanceof UTF8StreamReader);
+            assertEquals("a<b>c", xmlObjects.fromXML(reader, Foo.class).getText());
+        }
+    }
+
+    private String repeat(char ch, int count) {
+        char[] chars = new char[count];
+        Arrays.fill(chars, ch);
+        return new String(chars);
+    }
+
+    private void assertSameEvents(String xml) throws Exception {
+        assertEquals(readAll(createJDKReader(xml)), readAll(createReader(xml)));
+    }
+
+    private XMLStreamReader createReader(String xml) throws XMLStreamException {
+        return new UTF8StreamReader(toStream(xml));
+    }
+
+    private XMLStreamReader createJDKReader(String xml) throws XMLStreamException {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty("http://java.sun.com/xml/stream/properties/report-cdata-event", true);
+        return factory.createXMLStreamReader(toStream(xml));
+    }
+
+    private ByteArrayInputStream toStream(String xml) {
+        return new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private List<String> readAll(XMLStreamReader reader) throws XMLStreamException {
+        List<String> events = new ArrayList<>();
+        StringBuilder text = new StringBuilder();
+        int textType = -1;
+
+        while (reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA) {
+                // the JDK parser splits text at references
+                if (event != textType && textType != -1)
+                    events.add(textType + " " + text);
+
+                if (event != textType) {
+                    text.setLength(0);
+                    textType = event;
+                }
+
+                text.append(reader.getText());
+                continue;
+            } else if (textType != -1) {
+                events.add(textType + " " + text);
+                textType = -1;
+            }
+
+            switch (event) {
+                case XMLStreamConstants.START_ELEMENT:
+                    TreeSet<String> namespaces = new TreeSet<>();
+                    for (int i = 0; i < reader.getNamespaceCount(); i++)
+                        namespaces.add(reader.getNamespacePrefix(i) + "=" + reader.getNamespaceURI(i));
+
+                    TreeSet<String> attributes = new TreeSet<>();
+                    for (int i = 0; i < reader.getAttributeCount(); i++)
+                        attributes.add(reader.getAttributeName(i) + ":" + reader.getAttributePrefix(i) + "=" + reader.getAttributeValue(i));
+
+                    events.add(event + " " + reader.getName() + ":" + reader.getPrefix() + " " + namespaces + " " + attributes);
+                    break;
+                case XMLStreamConstants.END_ELEMENT:
+                    events.add(event + " " + reader.getName() + ":" + reader.getPrefix());
+                    break;
+                case XMLStreamConstants.COMMENT:
+                    events.add(event + " " + reader.getText());
+                    break;
+                case XMLStreamConstants.PROCESSING_INSTRUCTION:
+                    events.add(event + " " + reader.getPITarget() + " " + reader.getPIData());
+                    break;
+                default:
+                    events.add(String.valueOf(event));
+            }
+        }
+
+        return events;
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * xml-objects - A simple and lightweight XML-to-object mapping library
+ * https://github.com/xmlobjects
+ *
+ * Copyright 2019-2020 Claus Nagel <claus.nagel@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.xmlobjects.xml;
+
+import org.junit.jupiter.api.Test;
+
+import javax.xml.XMLConstants;
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamReader;
+import java.io.StringReader;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AttributesTest {
+
+    @Test
+    public void readFromStreamReader() throws Exception {
+        XMLStreamReader reader = createReader("<a xmlns:x=\"urn:x\" id=\"1\" x:id=\"2\" name=\"n\"/>");
+        Attributes attributes = Attributes.of(reader);
+        reader.close();
+
+        assertFalse(attributes.isEmpty());
+        assertEquals("1", attributes.getValue("id").get());
+        assertEquals("2", attributes.getValue("urn:x", "id").get());
+        assertEquals("2", attributes.getValue(new QName("urn:x", "id")).get());
+        assertEquals("n", attributes.getValue(XMLConstants.NULL_NS_URI, "name").get());
+        assertFalse(attributes.getValue("missing").isPresent());
+        assertFalse(attributes.getValue("urn:y", "id").isPresent());
+    }
+
+    @Test
+    public void readWithoutAttributes() throws Exception {
+        Attributes attributes = Attributes.of(createReader("<a xmlns=\"urn:a\"/>"));
+        assertTrue(attributes.isEmpty());
+        assertTrue(attributes.get().isEmpty());
+        assertFalse(attributes.getValue("id").isPresent());
+    }
+
+    @Test
+    public void modifyStreamAttributes() throws Exception {
+        Attributes attributes = Attributes.of(createReader("<a xmlns:x=\"urn:x\" id=\"1\" x:id=\"2\"/>"));
+        attributes.add("name", "n");
+        attributes.add("urn:x", "id", "3");
+
+        assertEquals("1", attributes.getValue("id").get());
+        assertEquals("n", attributes.getValue("name").get());
+        assertEquals("3", attributes.getValue("urn:x", "id").get());
+        assertEquals(2, attributes.get(XMLConstants.NULL_NS_URI).size());
+        assertEquals(1, attributes.get("urn:x").size());
+        assertEquals(2, attributes.get().size());
+    }
+
+    @Test
+    public void buildWithoutReader() {
+        Attributes attributes = new Attributes();
+        assertTrue(attributes.isEmpty());
+
+        attributes.add(new QName("urn:x", "id"), "1");
+        assertFalse(attributes.isEmpty());
+        assertEquals("1", attributes.getValue("urn:x", "id").get());
+        assertTrue(attributes.get("urn:y").isEmpty());
+    }
+
+    private XMLStreamReader createReader(String xml) throws Exception {
+        XMLStreamReader reader = XMLInputFactory.newInstance().createXMLStreamReader(new StringReader(xml));
+        reader.nextTag();
+        return reader;
+    }
+}